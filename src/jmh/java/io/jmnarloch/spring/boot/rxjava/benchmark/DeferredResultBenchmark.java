@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jmnarloch.spring.boot.rxjava.async.ObservableDeferredResult;
+import io.jmnarloch.spring.boot.rxjava.async.SingleDeferredResult;
+import io.jmnarloch.spring.boot.rxjava.mvc.FlowableReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.ObservableReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.StreamingMode;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks setting the results of the reactive types, both aggregated into the {@code DeferredResult} and streamed
+ * directly into the response, for different result sizes.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeferredResultBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private final Single<String> single = Single.just("value");
+
+    private final ObservableReturnValueHandler streamingHandler =
+            new ObservableReturnValueHandler(StreamingMode.JSON_ARRAY, new ObjectMapper());
+
+    private final FlowableReturnValueHandler flowableHandler = new FlowableReturnValueHandler();
+
+    private Observable<Integer> observable;
+
+    private Flowable<Integer> flowable;
+
+    private MethodParameter observableReturnType;
+
+    private MethodParameter flowableReturnType;
+
+    @Setup
+    public void setUp() throws Exception {
+        observable = Observable.range(0, size);
+        flowable = Flowable.range(0, size);
+        observableReturnType = new MethodParameter(Controller.class.getMethod("observable"), -1);
+        flowableReturnType = new MethodParameter(Controller.class.getMethod("flowable"), -1);
+    }
+
+    @Benchmark
+    public Object single() {
+        return new SingleDeferredResult<String>(single).getResult();
+    }
+
+    @Benchmark
+    public Object observable() {
+        return new ObservableDeferredResult<Integer>(observable).getResult();
+    }
+
+    @Benchmark
+    public Object streamingObservable() throws Exception {
+        final NativeWebRequest webRequest = BenchmarkRequests.asyncWebRequest();
+        streamingHandler.handleReturnValue(observable, observableReturnType, new ModelAndViewContainer(), webRequest);
+        return webRequest;
+    }
+
+    @Benchmark
+    public Object flowable() throws Exception {
+        final NativeWebRequest webRequest = BenchmarkRequests.asyncWebRequest();
+        flowableHandler.handleReturnValue(flowable, flowableReturnType, new ModelAndViewContainer(), webRequest);
+        return webRequest;
+    }
+
+    public interface Controller {
+
+        Observable<Integer> observable();
+
+        Flowable<Integer> flowable();
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.benchmark;
+
+import io.jmnarloch.spring.boot.rxjava.mvc.CompletableReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.FlowableReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.MaybeReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.ObservableReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.SingleReturnValueHandler;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the dispatch of the reactive return values through the {@link HandlerMethodReturnValueHandlerComposite},
+ * the same way Spring MVC selects and invokes the handlers.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReturnValueHandlerBenchmark {
+
+    private final HandlerMethodReturnValueHandlerComposite handlers = new HandlerMethodReturnValueHandlerComposite();
+
+    private final Single<String> single = Single.just("value");
+
+    private final Observable<String> observable = Observable.just("value");
+
+    private MethodParameter singleReturnType;
+
+    private MethodParameter observableReturnType;
+
+    @Setup
+    public void setUp() throws Exception {
+        handlers.addHandler(new ObservableReturnValueHandler());
+        handlers.addHandler(new SingleReturnValueHandler());
+        handlers.addHandler(new MaybeReturnValueHandler());
+        handlers.addHandler(new CompletableReturnValueHandler());
+        handlers.addHandler(new FlowableReturnValueHandler());
+        singleReturnType = new MethodParameter(Controller.class.getMethod("single"), -1);
+        observableReturnType = new MethodParameter(Controller.class.getMethod("observable"), -1);
+    }
+
+    @Benchmark
+    public Object single() throws Exception {
+        return handle(single, singleReturnType);
+    }
+
+    @Benchmark
+    public Object observable() throws Exception {
+        return handle(observable, observableReturnType);
+    }
+
+    private Object handle(Object returnValue, MethodParameter returnType) throws Exception {
+        final NativeWebRequest webRequest = BenchmarkRequests.asyncWebRequest();
+        handlers.handleReturnValue(returnValue, returnType, new ModelAndViewContainer(), webRequest);
+        return WebAsyncUtils.getAsyncManager(webRequest).getConcurrentResult();
+    }
+
+    public interface Controller {
+
+        Single<String> single();
+
+        Observable<String> observable();
+    }
+}
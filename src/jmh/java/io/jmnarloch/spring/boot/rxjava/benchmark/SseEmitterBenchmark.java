@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.benchmark;
+
+import io.jmnarloch.spring.boot.rxjava.async.ObservableSseEmitter;
+import io.jmnarloch.spring.boot.rxjava.async.SseEmitterOptions;
+import io.jmnarloch.spring.boot.rxjava.mvc.ObservableSseEmitterReturnValueHandler;
+import io.reactivex.subjects.PublishSubject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitterReturnValueHandler;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks emitting the values through the {@link ObservableSseEmitter} into a response that discards the written
+ * content, so that only the cost of the emitter, the message converters and the observer is measured.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SseEmitterBenchmark {
+
+    @Param({"1", "100"})
+    private int events;
+
+    private final Event event = new Event("Spring.io", 2016);
+
+    private ObservableSseEmitterReturnValueHandler emitterHandler;
+
+    private MethodParameter returnType;
+
+    @Setup
+    public void setUp() throws Exception {
+        emitterHandler = new ObservableSseEmitterReturnValueHandler(new ResponseBodyEmitterReturnValueHandler(
+                Arrays.<HttpMessageConverter<?>>asList(
+                        new ByteArrayHttpMessageConverter(),
+                        new StringHttpMessageConverter(),
+                        new MappingJackson2HttpMessageConverter()
+                )));
+        returnType = new MethodParameter(Controller.class.getMethod("events"), -1);
+    }
+
+    @Benchmark
+    public Object text() throws Exception {
+        final PublishSubject<Object> subject = PublishSubject.create();
+        return emit(subject, new ObservableSseEmitter<Object>(subject), "value");
+    }
+
+    @Benchmark
+    public Object json() throws Exception {
+        final PublishSubject<Object> subject = PublishSubject.create();
+        return emit(subject, new ObservableSseEmitter<Object>(subject), event);
+    }
+
+    @Benchmark
+    public Object batchedJson() throws Exception {
+        final PublishSubject<Object> subject = PublishSubject.create();
+        return emit(subject, new ObservableSseEmitter<Object>(null, subject,
+                new SseEmitterOptions().batch(events, 1, TimeUnit.SECONDS)), event);
+    }
+
+    private Object emit(PublishSubject<Object> subject, ObservableSseEmitter<Object> emitter, Object value) throws Exception {
+        emitterHandler.handleReturnValue(emitter, returnType, new ModelAndViewContainer(), BenchmarkRequests.asyncWebRequest());
+        for (int index = 0; index < events; index++) {
+            subject.onNext(value);
+        }
+        subject.onComplete();
+        return emitter;
+    }
+
+    public interface Controller {
+
+        ObservableSseEmitter<Object> events();
+    }
+
+    public static class Event {
+
+        private final String name;
+
+        private final int year;
+
+        public Event(String name, int year) {
+            this.name = name;
+            this.year = year;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getYear() {
+            return year;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Flowable;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.http.MediaType;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A base class for the subscribers that write the encoded values produced by the {@link Flowable} into the
+ * {@link ResponseStream}, using the Servlet 3.1 non-blocking IO.
+ *
+ * The upstream demand follows the writability of the response: at most {@code prefetch} encoded values are
+ * requested up front and the subsequent values are requested only after the previous ones have been handed over to
+ * the container while {@link ServletOutputStream#isReady()} was {@code true}. A slow client therefore slows down the
+ * producer instead of letting the values pile up on the heap.
+ *
+ * The encoded values backed by an array are written as they are, the other buffers are copied into the container
+ * through a small scratch array, a piece per write.
+ *
+ * @author Jakub Narloch
+ */
+public abstract class AbstractResponseSubscriber<T> implements Subscriber<T>, Runnable, TrackedObserver {
+
+    private static final int SCRATCH_SIZE = 8192;
+
+    private final ResponseStream responseStream;
+
+    private final int prefetch;
+
+    private final int limit;
+
+    private final Queue<ByteBuffer> queue = new ConcurrentLinkedQueue<ByteBuffer>();
+
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final AtomicBoolean terminated = new AtomicBoolean();
+
+    private final WriteListener writeListener = new WriteListener() {
+        @Override
+        public void onWritePossible() throws IOException {
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            cancel();
+            responseStream.complete();
+        }
+    };
+
+    private final RequestLifecycle lifecycle = RequestLifecycle.start(this);
+
+    private volatile Subscription subscription;
+
+    private volatile ServletOutputStream outputStream;
+
+    private volatile boolean done;
+
+    private volatile Throwable error;
+
+    private volatile boolean cancelled;
+
+    private byte[] scratch;
+
+    private int consumed;
+
+    protected AbstractResponseSubscriber(int prefetch, ResponseStream responseStream) {
+        this.prefetch = prefetch;
+        this.limit = prefetch - (prefetch >> 2);
+        this.responseStream = responseStream;
+        this.responseStream.onTimeout(lifecycle.onTimeout(this));
+        this.responseStream.onCompletion(this);
+    }
+
+    /**
+     * Subscribes to the {@link Flowable}, invoked by the subclasses once they have been initialized.
+     *
+     * @param flowable the flowable
+     */
+    protected final void subscribe(Flowable<? extends T> flowable) {
+        lifecycle.onSubscribe();
+        flowable.subscribe(this);
+    }
+
+    /**
+     * Returns the content type of the response.
+     *
+     * @return the content type
+     */
+    protected abstract MediaType getContentType();
+
+    /**
+     * Prepares the encoding, invoked before any value is requested.
+     *
+     * @throws IOException if any error occurs
+     */
+    protected void start() throws IOException {
+    }
+
+    /**
+     * Encodes the value.
+     *
+     * @param value the value
+     * @return the encoded value
+     * @throws IOException if any error occurs
+     */
+    protected abstract ByteBuffer encode(T value) throws IOException;
+
+    /**
+     * Encodes the content that follows the last value.
+     *
+     * @return the encoded content, or {@code null} if there is none
+     * @throws IOException if any error occurs
+     */
+    protected ByteBuffer end() throws IOException {
+        return null;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        try {
+            start();
+        } catch (IOException e) {
+            subscription.cancel();
+            onError(e);
+            return;
+        }
+        subscription.request(prefetch);
+    }
+
+    @Override
+    public void onNext(T value) {
+
+        if (done) {
+            return;
+        }
+        lifecycle.onItem();
+        try {
+            queue.offer(encode(value));
+        } catch (IOException e) {
+            subscription.cancel();
+            onError(e);
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        if (terminated.compareAndSet(false, true)) {
+            error = e;
+            done = true;
+            drain();
+        }
+    }
+
+    @Override
+    public void onComplete() {
+
+        if (!terminated.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final ByteBuffer last = end();
+            if (last != null) {
+                queue.offer(last);
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void run() {
+        lifecycle.onDispose();
+        cancel();
+    }
+
+    private void cancel() {
+        cancelled = true;
+        final Subscription subscription = this.subscription;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        for (;;) {
+            if (cancelled) {
+                queue.clear();
+            } else {
+                drainLoop();
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    private void drainLoop() {
+
+        ServletOutputStream out = outputStream;
+        if (out == null) {
+            if (done && error != null) {
+                lifecycle.onError();
+                cancelled = true;
+                responseStream.completeWithError(error);
+                return;
+            }
+            if (queue.isEmpty() && !done) {
+                return;
+            }
+            try {
+                out = responseStream.open(getContentType());
+                outputStream = out;
+                out.setWriteListener(writeListener);
+            } catch (IOException e) {
+                cancel();
+                responseStream.completeWithError(e);
+                return;
+            }
+            // the container is not obliged to signal the writability of a stream that has been ready from the
+            // start, so the content queued so far, including the terminal one, is written right away
+        }
+
+        try {
+            while (out.isReady()) {
+                final boolean d = done;
+                if (d && error != null) {
+                    lifecycle.onError();
+                    cancel();
+                    responseStream.complete();
+                    return;
+                }
+                final ByteBuffer chunk = queue.peek();
+                if (chunk == null) {
+                    if (d) {
+                        lifecycle.onComplete();
+                        cancelled = true;
+                        responseStream.complete();
+                    }
+                    return;
+                }
+                write(out, chunk);
+                if (!chunk.hasRemaining()) {
+                    queue.poll();
+                    if (++consumed == limit) {
+                        consumed = 0;
+                        subscription.request(limit);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            cancel();
+            responseStream.complete();
+        }
+    }
+
+    private void write(ServletOutputStream out, ByteBuffer chunk) throws IOException {
+        if (chunk.hasArray()) {
+            out.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+            chunk.position(chunk.limit());
+            return;
+        }
+        if (scratch == null) {
+            scratch = new byte[SCRATCH_SIZE];
+        }
+        final int length = Math.min(chunk.remaining(), scratch.length);
+        chunk.get(scratch, 0, length);
+        out.write(scratch, 0, length);
+    }
+
+    @Override
+    public void abort(Throwable cause) {
+        final Subscription subscription = this.subscription;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        onError(cause);
+    }
+
+    @Override
+    public boolean shutdown() {
+        return false;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+/**
+ * A point in time view of a single reactive request tracked by the {@link ReactiveRequestRegistry}.
+ *
+ * @author Jakub Narloch
+ * @see ReactiveRequestRegistry
+ */
+public class ActiveRequest {
+
+    private final long id;
+
+    private final String handler;
+
+    private final String type;
+
+    private final long age;
+
+    private final long items;
+
+    private final int queueDepth;
+
+    public ActiveRequest(long id, String handler, String type, long age, long items, int queueDepth) {
+        this.id = id;
+        this.handler = handler;
+        this.type = type;
+        this.age = age;
+        this.items = items;
+        this.queueDepth = queueDepth;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Returns the time since the subscription in milliseconds.
+     *
+     * @return the age
+     */
+    public long getAge() {
+        return age;
+    }
+
+    public long getItems() {
+        return items;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+}
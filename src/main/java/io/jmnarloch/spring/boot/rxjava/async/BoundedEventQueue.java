@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link EventQueue} of a fixed capacity, that applies the {@link OverflowPolicy} once it is full.
+ *
+ * @author Jakub Narloch
+ */
+class BoundedEventQueue implements EventQueue {
+
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<Object>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final int capacity;
+
+    private final OverflowPolicy overflowPolicy;
+
+    BoundedEventQueue(int capacity, OverflowPolicy overflowPolicy) {
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public boolean offer(Object event) {
+        if (size.incrementAndGet() > capacity) {
+            if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                size.decrementAndGet();
+                return true;
+            } else if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                size.decrementAndGet();
+                return false;
+            } else if (queue.poll() != null) {
+                size.decrementAndGet();
+            }
+        }
+        queue.offer(event);
+        return true;
+    }
+
+    @Override
+    public Object poll() {
+        final Object event = queue.poll();
+        if (event != null) {
+            size.decrementAndGet();
+        }
+        return event;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return Math.max(size.get(), 0);
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null) {
+            // drains the queue keeping the size consistent
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Flowable;
+import org.springframework.http.MediaType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Subscriber that writes the {@link ByteBuffer}s produced by the {@link Flowable} as they are into the
+ * {@link ResponseStream}, using the Servlet 3.1 non-blocking IO.
+ *
+ * The buffers are not copied on the heap before being handed over to the container, and their content is consumed
+ * by the writes.
+ *
+ * @author Jakub Narloch
+ * @see AbstractResponseSubscriber
+ */
+public class ByteBufferResponseSubscriber extends AbstractResponseSubscriber<ByteBuffer> {
+
+    private final MediaType contentType;
+
+    public ByteBufferResponseSubscriber(Flowable<ByteBuffer> flowable, MediaType contentType, int prefetch,
+                                        ResponseStream responseStream) {
+
+        super(prefetch, responseStream);
+        this.contentType = contentType;
+        subscribe(flowable);
+    }
+
+    @Override
+    protected MediaType getContentType() {
+        return contentType;
+    }
+
+    @Override
+    protected ByteBuffer encode(ByteBuffer value) {
+        return value;
+    }
+}
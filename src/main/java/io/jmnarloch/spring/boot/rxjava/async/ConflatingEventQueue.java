@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.functions.Function;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An {@link EventQueue} that keeps only the newest pending event per key. An event replacing a pending one takes over
+ * its position, so every key is written in the order it first became pending. The memory used by the queue is bounded
+ * by the number of distinct keys rather than by the rate of the events.
+ *
+ * @author Jakub Narloch
+ */
+class ConflatingEventQueue implements EventQueue {
+
+    private final Map<Object, Object> events = new LinkedHashMap<Object, Object>();
+
+    private final Function<Object, ?> keyExtractor;
+
+    ConflatingEventQueue(Function<Object, ?> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    public boolean offer(Object event) throws Exception {
+        final Object key = keyExtractor.apply(event);
+        synchronized (events) {
+            events.put(key, event);
+        }
+        return true;
+    }
+
+    @Override
+    public Object poll() {
+        synchronized (events) {
+            final Iterator<Object> iterator = events.values().iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            final Object event = iterator.next();
+            iterator.remove();
+            return event;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        synchronized (events) {
+            return events.isEmpty();
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (events) {
+            return events.size();
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (events) {
+            events.clear();
+        }
+    }
+}
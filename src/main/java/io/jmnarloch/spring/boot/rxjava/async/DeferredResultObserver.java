@@ -15,44 +15,63 @@
  */
 package io.jmnarloch.spring.boot.rxjava.async;
 
-import io.reactivex.Observable;
-import io.reactivex.observers.DisposableObserver;
+import io.reactivex.Single;
+import io.reactivex.observers.DisposableSingleObserver;
 import org.springframework.web.context.request.async.DeferredResult;
 
 /**
- * A subscriber that sets the single value produced by the {@link Observable} on the {@link DeferredResult}.
+ * A subscriber that sets the value produced by the {@link Single} on the {@link DeferredResult}.
  *
  * @author Jakub Narloch
  * @author Robert Danci
  * @see DeferredResult
  */
-class DeferredResultObserver<T> extends DisposableObserver<T> implements Runnable {
+class DeferredResultObserver<T> extends DisposableSingleObserver<T> implements Runnable, TrackedObserver {
 
     private final DeferredResult<T> deferredResult;
 
-    public DeferredResultObserver(Observable<T> observable, DeferredResult<T> deferredResult) {
+    private final RequestLifecycle lifecycle = RequestLifecycle.start(this);
+
+    public DeferredResultObserver(Single<T> single, DeferredResult<T> deferredResult) {
         this.deferredResult = deferredResult;
-        this.deferredResult.onTimeout(this);
+        this.deferredResult.onTimeout(lifecycle.onTimeout(this));
         this.deferredResult.onCompletion(this);
-        observable.subscribe(this);
+        lifecycle.onSubscribe();
+        single.subscribe(this);
     }
 
     @Override
-    public void onNext(T value) {
+    public void onSuccess(T value) {
+        lifecycle.onItem();
+        lifecycle.onComplete();
         deferredResult.setResult(value);
     }
 
     @Override
     public void onError(Throwable e) {
+        lifecycle.onError();
         deferredResult.setErrorResult(e);
     }
 
     @Override
-    public void onComplete() {
+    public void run() {
+        lifecycle.onDispose();
+        this.dispose();
     }
 
     @Override
-    public void run() {
-        this.dispose();
+    public void abort(Throwable cause) {
+        dispose();
+        onError(cause);
+    }
+
+    @Override
+    public boolean shutdown() {
+        return false;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return 0;
     }
 }
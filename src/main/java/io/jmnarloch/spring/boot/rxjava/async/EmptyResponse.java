@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptorAdapter;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Completes the asynchronous processing of a {@link DeferredResult} with a response that has a status and no body.
+ *
+ * The status is written directly on the native response. A value set on the {@link DeferredResult} is dispatched
+ * back to Spring MVC and handled against the return type of the handler method, which for a {@code Maybe} or
+ * {@code Completable} leaves no means of rendering a response without a body.
+ *
+ * The response is completed only once the asynchronous processing has been started, since the reactive type may
+ * complete before it is.
+ *
+ * @author Jakub Narloch
+ * @see DeferredResult
+ */
+class EmptyResponse extends DeferredResultProcessingInterceptorAdapter {
+
+    private final DeferredResult<?> deferredResult;
+
+    private final HttpServletRequest request;
+
+    private final HttpServletResponse response;
+
+    private boolean started;
+
+    private HttpStatus status;
+
+    EmptyResponse(DeferredResult<?> deferredResult, NativeWebRequest webRequest) {
+        this.deferredResult = deferredResult;
+        this.request = webRequest.getNativeRequest(HttpServletRequest.class);
+        this.response = webRequest.getNativeResponse(HttpServletResponse.class);
+        WebAsyncUtils.getAsyncManager(webRequest).registerDeferredResultInterceptor(this, this);
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        if (deferredResult != this.deferredResult) {
+            return;
+        }
+        final HttpStatus status;
+        synchronized (this) {
+            started = true;
+            status = this.status;
+        }
+        if (status != null) {
+            complete(status);
+        }
+    }
+
+    /**
+     * Completes the response with the given status, as soon as the asynchronous processing has been started.
+     *
+     * @param status the response status
+     */
+    public void send(HttpStatus status) {
+        synchronized (this) {
+            this.status = status;
+            if (!started) {
+                return;
+            }
+        }
+        complete(status);
+    }
+
+    private void complete(HttpStatus status) {
+        response.setStatus(status.value());
+        request.getAsyncContext().complete();
+    }
+}
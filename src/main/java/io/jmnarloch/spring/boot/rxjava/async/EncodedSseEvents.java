@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+/**
+ * The event frames already rendered by the emitter, written into the response at once.
+ *
+ * @author Jakub Narloch
+ */
+class EncodedSseEvents {
+
+    private final byte[] frames;
+
+    EncodedSseEvents(byte[] frames) {
+        this.frames = frames;
+    }
+
+    byte[] getFrames() {
+        return frames;
+    }
+}
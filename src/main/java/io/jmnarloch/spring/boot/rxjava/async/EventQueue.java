@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+/**
+ * The events pending to be written into a single connection.
+ *
+ * @author Jakub Narloch
+ * @see SseResponseObserver
+ */
+interface EventQueue {
+
+    /**
+     * Queues the event, the implementation may drop this or any other pending event.
+     *
+     * @param event the event
+     * @return {@code false} if the event has been rejected and the connection needs to be closed
+     * @throws Exception if any error occurs
+     */
+    boolean offer(Object event) throws Exception;
+
+    Object poll();
+
+    boolean isEmpty();
+
+    int size();
+
+    void clear();
+}
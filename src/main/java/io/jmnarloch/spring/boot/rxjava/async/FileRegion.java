@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.Consumer;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+
+/**
+ * A region of a file to be sent as the response body, returned from the handler methods as a
+ * {@code Single<FileRegion>}. The region supports the range requests.
+ *
+ * The region is read in chunks of a fixed size into a few heap buffers, which are reused in turn for the whole
+ * region and handed over to the container one after another as the client receives them, so that a download takes
+ * the same small amount of heap regardless of the region size.
+ *
+ * @author Jakub Narloch
+ */
+public class FileRegion {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final File file;
+
+    private final long position;
+
+    private final long count;
+
+    private final MediaType contentType;
+
+    public FileRegion(File file) {
+        this(file, MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    public FileRegion(File file, MediaType contentType) {
+        this(file, 0, -1, contentType);
+    }
+
+    /**
+     * Creates new instance of {@link FileRegion}.
+     *
+     * @param file        the file
+     * @param position    the position of the region in the file
+     * @param count       the size of the region, or {@code -1} for the remainder of the file
+     * @param contentType the content type
+     */
+    public FileRegion(File file, long position, long count, MediaType contentType) {
+        Assert.notNull(file, "file can not be null");
+        Assert.isTrue(position >= 0, "position can not be negative");
+        Assert.notNull(contentType, "contentType can not be null");
+        this.file = file;
+        this.position = position;
+        this.count = count;
+        this.contentType = contentType;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public MediaType getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Returns the size of the region, bounded by the current size of the file.
+     *
+     * @return the size in bytes
+     */
+    public long contentLength() {
+        final long available = Math.max(file.length() - position, 0);
+        return count >= 0 ? Math.min(count, available) : available;
+    }
+
+    /**
+     * Reads the part of the region into the given number of heap buffers, reused in turn. A buffer is emitted again
+     * once as many other buffers have been emitted after it, so the subscriber has to be done with a buffer before
+     * requesting that many buffers past it. The file is opened only once the returned {@link Flowable} is subscribed.
+     *
+     * @param offset  the offset within the region
+     * @param length  the number of bytes to read
+     * @param buffers the number of buffers
+     * @return the content of the region
+     */
+    public Flowable<ByteBuffer> read(final long offset, final long length, final int buffers) {
+        Assert.isTrue(buffers > 0, "buffers must be positive");
+        return Flowable.generate(new Callable<ChunkReader>() {
+            @Override
+            public ChunkReader call() throws Exception {
+                return new ChunkReader(new FileInputStream(file).getChannel(), position + offset, length, buffers);
+            }
+        }, new ReadChunk(), new CloseChannel());
+    }
+
+    private static class ChunkReader {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer[] buffers;
+
+        private final int bufferSize;
+
+        private int next;
+
+        private long position;
+
+        private long remaining;
+
+        ChunkReader(FileChannel channel, long position, long remaining, int buffers) {
+            this.channel = channel;
+            this.buffers = new ByteBuffer[buffers];
+            this.bufferSize = (int) Math.max(Math.min(remaining, CHUNK_SIZE), 1);
+            this.position = position;
+            this.remaining = remaining;
+        }
+
+        void next(Emitter<ByteBuffer> emitter) throws IOException {
+            if (remaining <= 0) {
+                emitter.onComplete();
+                return;
+            }
+            final ByteBuffer chunk = nextBuffer();
+            chunk.limit((int) Math.min(remaining, chunk.capacity()));
+            final int read = channel.read(chunk, position);
+            if (read <= 0) {
+                emitter.onError(new IOException("The file has been truncated"));
+                return;
+            }
+            chunk.flip();
+            position += read;
+            remaining -= read;
+            emitter.onNext(chunk);
+        }
+
+        private ByteBuffer nextBuffer() {
+            ByteBuffer buffer = buffers[next];
+            if (buffer == null) {
+                buffer = ByteBuffer.allocate(bufferSize);
+                buffers[next] = buffer;
+            }
+            next = (next + 1) % buffers.length;
+            buffer.clear();
+            return buffer;
+        }
+    }
+
+    private static class ReadChunk implements BiConsumer<ChunkReader, Emitter<ByteBuffer>> {
+
+        @Override
+        public void accept(ChunkReader reader, Emitter<ByteBuffer> emitter) {
+            try {
+                reader.next(emitter);
+            } catch (IOException e) {
+                emitter.onError(e);
+            }
+        }
+    }
+
+    private static class CloseChannel implements Consumer<ChunkReader> {
+
+        @Override
+        public void accept(ChunkReader reader) throws Exception {
+            reader.channel.close();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import org.reactivestreams.Publisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Subscriber that writes the {@link FileRegion} produced by the {@link Single} into the {@link ResponseStream},
+ * using the Servlet 3.1 non-blocking IO.
+ *
+ * A request for a single byte range is answered with the partial content, a request for multiple ranges is answered
+ * with the whole region, and an unsatisfiable range is rejected. Only two chunks of the file are read ahead of the
+ * writes, into two heap buffers reused for the whole response.
+ *
+ * @author Jakub Narloch
+ * @see FileRegion
+ */
+public class FileRegionResponseSubscriber extends AbstractResponseSubscriber<ByteBuffer> {
+
+    private static final int PREFETCH = 2;
+
+    private static final String BYTES = "bytes";
+
+    private final ResponseStream responseStream;
+
+    private volatile MediaType contentType = MediaType.APPLICATION_OCTET_STREAM;
+
+    public FileRegionResponseSubscriber(Single<FileRegion> single, ResponseStream responseStream) {
+
+        super(PREFETCH, responseStream);
+        this.responseStream = responseStream;
+        // concatMap, unlike flatMapPublisher, passes the demand through to the chunks rather than prefetching them
+        subscribe(single.toFlowable().concatMap(new Function<FileRegion, Publisher<ByteBuffer>>() {
+            @Override
+            public Publisher<ByteBuffer> apply(FileRegion region) throws Exception {
+                return prepare(region);
+            }
+        }));
+    }
+
+    @Override
+    protected MediaType getContentType() {
+        return contentType;
+    }
+
+    @Override
+    protected ByteBuffer encode(ByteBuffer value) {
+        return value;
+    }
+
+    private Flowable<ByteBuffer> prepare(FileRegion region) throws FileNotFoundException {
+        if (!region.getFile().isFile()) {
+            throw new FileNotFoundException(region.getFile().getPath());
+        }
+        contentType = region.getContentType();
+        final long length = region.contentLength();
+        responseStream.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+
+        final List<HttpRange> ranges;
+        try {
+            final String range = responseStream.getRequestHeader(HttpHeaders.RANGE);
+            ranges = range != null ? HttpRange.parseRanges(range) : Collections.<HttpRange>emptyList();
+        } catch (IllegalArgumentException e) {
+            return unsatisfiable(length);
+        }
+        if (ranges.size() != 1) {
+            responseStream.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(length));
+            return region.read(0, length, PREFETCH);
+        }
+
+        final long start = ranges.get(0).getRangeStart(length);
+        final long end = ranges.get(0).getRangeEnd(length);
+        if (start >= length || start > end) {
+            return unsatisfiable(length);
+        }
+        responseStream.setStatus(HttpStatus.PARTIAL_CONTENT);
+        responseStream.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " " + start + "-" + end + "/" + length);
+        responseStream.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(end - start + 1));
+        return region.read(start, end - start + 1, PREFETCH);
+    }
+
+    private Flowable<ByteBuffer> unsatisfiable(long length) {
+        responseStream.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        responseStream.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+        responseStream.setHeader(HttpHeaders.CONTENT_LENGTH, "0");
+        return Flowable.empty();
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.reactivex.Flowable;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Subscriber that writes every value produced by the {@link Flowable} as an element of a JSON array into the
+ * {@link ResponseStream}, using the Servlet 3.1 non-blocking IO.
+ *
+ * @author Jakub Narloch
+ * @see AbstractResponseSubscriber
+ */
+public class FlowableResponseSubscriber<T> extends AbstractResponseSubscriber<T> {
+
+    private final ObjectWriter objectWriter;
+
+    private final ByteArrayBuilder buffer = new ByteArrayBuilder();
+
+    private JsonGenerator generator;
+
+    public FlowableResponseSubscriber(Flowable<T> flowable, ObjectMapper objectMapper, int prefetch,
+                                      ResponseStream responseStream) {
+
+        super(prefetch, responseStream);
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        subscribe(flowable);
+    }
+
+    @Override
+    protected MediaType getContentType() {
+        return MediaType.APPLICATION_JSON_UTF8;
+    }
+
+    @Override
+    protected void start() throws IOException {
+        generator = objectWriter.getFactory().createGenerator(buffer, JsonEncoding.UTF8);
+        generator.writeStartArray();
+    }
+
+    @Override
+    protected ByteBuffer encode(T value) throws IOException {
+        objectWriter.writeValue(generator, value);
+        return flushBuffer();
+    }
+
+    @Override
+    protected ByteBuffer end() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+        return flushBuffer();
+    }
+
+    private ByteBuffer flushBuffer() throws IOException {
+        generator.flush();
+        final ByteBuffer chunk = ByteBuffer.wrap(buffer.toByteArray());
+        buffer.reset();
+        return chunk;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import org.springframework.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when the values streamed into the response are flushed to the client: after every value, after every given
+ * number of values or after the given time elapses, whichever comes first.
+ *
+ * @author Jakub Narloch
+ * @see NdjsonResponseObserver
+ */
+public class FlushPolicy {
+
+    /**
+     * Flushes every value as soon as it is written.
+     */
+    public static final FlushPolicy PER_ITEM = new FlushPolicy(1, 0);
+
+    private final int items;
+
+    private final long interval;
+
+    private FlushPolicy(int items, long interval) {
+        this.items = items;
+        this.interval = interval;
+    }
+
+    /**
+     * Flushes after every given number of values.
+     *
+     * @param items the number of values
+     * @return the flush policy
+     */
+    public static FlushPolicy everyItems(int items) {
+        Assert.isTrue(items > 0, "items must be positive");
+        return items == 1 ? PER_ITEM : new FlushPolicy(items, 0);
+    }
+
+    /**
+     * Flushes the values written within the given interval at once, or sooner once the given number of values has
+     * been written.
+     *
+     * @param items    the max number of values, or zero for no limit
+     * @param interval the flush interval
+     * @param unit     the time unit
+     * @return the flush policy
+     */
+    public static FlushPolicy every(int items, long interval, TimeUnit unit) {
+        Assert.isTrue(items >= 0, "items can not be negative");
+        Assert.isTrue(interval > 0, "interval must be positive");
+        Assert.notNull(unit, "unit can not be null");
+        return new FlushPolicy(items, unit.toMillis(interval));
+    }
+
+    public int getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the flush interval in milliseconds, or zero if the values are flushed only by their number.
+     *
+     * @return the flush interval
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    public boolean isTimed() {
+        return interval > 0;
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses a single response into the gzip format chunk by chunk, keeping one compression context for the whole
+ * response, so that the repetitive content of the consecutive events compresses well.
+ *
+ * The chunks are compressed without flushing the deflater, the compressed data is released only by {@link #flush()},
+ * which performs the {@link Deflater#SYNC_FLUSH}, so that everything written so far can be decompressed by the client
+ * right away. Every method returns the compressed bytes that need to be written into the response at once, which
+ * suits the non-blocking IO where a single write is allowed per readiness check.
+ *
+ * @author Jakub Narloch
+ */
+class GzipCompressor {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Deflater deflater;
+
+    private final CRC32 crc = new CRC32();
+
+    private final byte[] buffer = new byte[4096];
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(4096);
+
+    private boolean headerWritten;
+
+    private boolean flushed = true;
+
+    GzipCompressor(int level) {
+        this.deflater = new Deflater(level, true);
+    }
+
+    /**
+     * Compresses the chunk, the compressed data is buffered by the deflater until it is flushed.
+     *
+     * @param data the chunk
+     * @return the compressed bytes, possibly empty
+     */
+    byte[] compress(byte[] data) {
+        crc.update(data, 0, data.length);
+        deflater.setInput(data);
+        flushed = false;
+        writeHeader();
+        while (!deflater.needsInput()) {
+            output.write(buffer, 0, deflater.deflate(buffer, 0, buffer.length, Deflater.NO_FLUSH));
+        }
+        return drainOutput();
+    }
+
+    /**
+     * Flushes the compressed data buffered by the deflater.
+     *
+     * @return the compressed bytes
+     */
+    byte[] flush() {
+        flushed = true;
+        writeHeader();
+        int count;
+        do {
+            count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+            output.write(buffer, 0, count);
+        } while (count == buffer.length);
+        return drainOutput();
+    }
+
+    boolean isFlushed() {
+        return flushed;
+    }
+
+    /**
+     * Finishes the compressed stream, writing the remaining data and the gzip trailer.
+     *
+     * @return the compressed bytes
+     */
+    byte[] finish() {
+        flushed = true;
+        writeHeader();
+        deflater.finish();
+        while (!deflater.finished()) {
+            output.write(buffer, 0, deflater.deflate(buffer));
+        }
+        writeInt((int) crc.getValue());
+        writeInt(deflater.getTotalIn());
+        return drainOutput();
+    }
+
+    /**
+     * Releases the native resources of the deflater.
+     */
+    void end() {
+        deflater.end();
+    }
+
+    private void writeHeader() {
+        if (!headerWritten) {
+            output.write(HEADER, 0, HEADER.length);
+            headerWritten = true;
+        }
+    }
+
+    private void writeInt(int value) {
+        output.write(value & 0xff);
+        output.write((value >> 8) & 0xff);
+        output.write((value >> 16) & 0xff);
+        output.write((value >> 24) & 0xff);
+    }
+
+    private byte[] drainOutput() {
+        if (output.size() == 0) {
+            return EMPTY;
+        }
+        final byte[] bytes = output.toByteArray();
+        output.reset();
+        return bytes;
+    }
+}
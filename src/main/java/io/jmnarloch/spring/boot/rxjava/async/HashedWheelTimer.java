@@ -0,0 +1,309 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.disposables.Disposable;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.Assert;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A hashed wheel timer that drives the heartbeats and the timeouts of all of the connections with a single thread.
+ *
+ * The tasks are hashed into the buckets of the wheel by their deadline and the worker thread visits one bucket per
+ * tick, running the tasks whose deadline has been reached. Scheduling and cancelling a task takes constant time and
+ * the work per tick is proportional to the number of tasks in the visited bucket, not to the number of all tasks. The
+ * timer trades precision for scalability: a task runs within one tick after its deadline.
+ *
+ * @author Jakub Narloch
+ */
+public class HashedWheelTimer {
+
+    private static final Log logger = LogFactory.getLog(HashedWheelTimer.class);
+
+    private static final HashedWheelTimer DEFAULT = new HashedWheelTimer(100, TimeUnit.MILLISECONDS, 512, "rxjava-mvc-timer");
+
+    private static final int INIT = 0;
+
+    private static final int CANCELLED = 1;
+
+    private static final int EXPIRED = 2;
+
+    private static final int WORKER_INIT = 0;
+
+    private static final int WORKER_STARTED = 1;
+
+    private static final int WORKER_SHUTDOWN = 2;
+
+    private final long tickDuration;
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final String threadName;
+
+    private final Queue<Task> pending = new ConcurrentLinkedQueue<Task>();
+
+    private final AtomicInteger state = new AtomicInteger(WORKER_INIT);
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private volatile long startTime;
+
+    private volatile Thread worker;
+
+    /**
+     * Creates new instance of {@link HashedWheelTimer}.
+     *
+     * @param tickDuration  the duration of a single tick
+     * @param unit          the time unit
+     * @param ticksPerWheel the number of the buckets, rounded up to a power of two
+     * @param threadName    the name of the worker thread
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int ticksPerWheel, String threadName) {
+        Assert.isTrue(tickDuration > 0, "tickDuration must be positive");
+        Assert.isTrue(ticksPerWheel > 0 && ticksPerWheel <= 1 << 30, "ticksPerWheel is out of range");
+        this.tickDuration = unit.toNanos(tickDuration);
+        final int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.wheel = new Bucket[Math.max(size, 1)];
+        for (int index = 0; index < wheel.length; index++) {
+            wheel[index] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Returns the timer shared by all of the connections. The worker thread of the shared timer is a daemon thread
+     * started on the first use.
+     *
+     * @return the shared timer
+     */
+    public static HashedWheelTimer getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Schedules the task to run once after the given delay.
+     *
+     * @param task  the task
+     * @param delay the delay
+     * @param unit  the time unit
+     * @return the handle that cancels the task
+     */
+    public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        Assert.notNull(task, "task can not be null");
+        start();
+        final Task timeout = new Task(task, System.nanoTime() + unit.toNanos(delay) - startTime);
+        pending.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the worker thread, the pending tasks never run.
+     */
+    public void stop() {
+        if (state.getAndSet(WORKER_SHUTDOWN) == WORKER_STARTED) {
+            final Thread thread = worker;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    private void start() {
+        if (state.get() == WORKER_INIT && state.compareAndSet(WORKER_INIT, WORKER_STARTED)) {
+            final long now = System.nanoTime();
+            // zero marks the start time that has not been set yet
+            startTime = now != 0 ? now : 1;
+            started.countDown();
+            final Thread thread = new Thread(new Worker(), threadName);
+            thread.setDaemon(true);
+            worker = thread;
+            thread.start();
+        }
+        awaitStartTime();
+    }
+
+    private void awaitStartTime() {
+        boolean interrupted = false;
+        while (startTime == 0 && state.get() != WORKER_SHUTDOWN) {
+            try {
+                started.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        private long tick;
+
+        @Override
+        public void run() {
+            while (state.get() == WORKER_STARTED) {
+                if (!awaitNextTick()) {
+                    return;
+                }
+                transferPending();
+                wheel[(int) (tick & mask)].expire();
+                tick++;
+            }
+        }
+
+        private boolean awaitNextTick() {
+            final long deadline = tickDuration * (tick + 1);
+            for (;;) {
+                final long sleep = deadline - (System.nanoTime() - startTime);
+                if (sleep <= 0) {
+                    return true;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (state.get() != WORKER_STARTED) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        private void transferPending() {
+            Task task;
+            while ((task = pending.poll()) != null) {
+                if (task.state.get() == CANCELLED) {
+                    continue;
+                }
+                final long ticks = task.deadline / tickDuration;
+                task.remainingRounds = (ticks - tick) / wheel.length;
+                wheel[(int) (Math.max(ticks, tick) & mask)].add(task);
+            }
+        }
+    }
+
+    private static class Bucket {
+
+        private Task head;
+
+        private Task tail;
+
+        void add(Task task) {
+            task.bucket = this;
+            if (head == null) {
+                head = task;
+                tail = task;
+            } else {
+                tail.next = task;
+                task.prev = tail;
+                tail = task;
+            }
+        }
+
+        void expire() {
+            Task task = head;
+            while (task != null) {
+                final Task next = task.next;
+                if (task.state.get() == CANCELLED) {
+                    remove(task);
+                } else if (task.remainingRounds <= 0) {
+                    remove(task);
+                    task.expire();
+                } else {
+                    task.remainingRounds--;
+                }
+                task = next;
+            }
+        }
+
+        private void remove(Task task) {
+            final Task next = task.next;
+            if (task.prev != null) {
+                task.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = task.prev;
+            }
+            if (task == head) {
+                head = next;
+            }
+            if (task == tail) {
+                tail = task.prev;
+            }
+            task.prev = null;
+            task.next = null;
+            task.bucket = null;
+        }
+    }
+
+    private static class Task implements Disposable {
+
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        private final long deadline;
+
+        private volatile Runnable runnable;
+
+        private long remainingRounds;
+
+        private Bucket bucket;
+
+        private Task prev;
+
+        private Task next;
+
+        Task(Runnable runnable, long deadline) {
+            this.runnable = runnable;
+            this.deadline = deadline;
+        }
+
+        void expire() {
+            if (state.compareAndSet(INIT, EXPIRED)) {
+                final Runnable task = runnable;
+                runnable = null;
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    // a failing task must not stop the timer
+                    logger.warn("The timer task " + task + " has failed", e);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (state.compareAndSet(INIT, CANCELLED)) {
+                // the task is unlinked by the worker thread once its bucket is visited
+                runnable = null;
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return state.get() != INIT;
+        }
+    }
+}
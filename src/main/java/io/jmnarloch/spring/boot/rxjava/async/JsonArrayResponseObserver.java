@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.reactivex.Observable;
+import io.reactivex.observers.DisposableObserver;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+
+/**
+ * Subscriber that writes every value produced by the {@link Observable} as an element of a JSON array directly into
+ * the {@link ResponseStream}, instead of aggregating all of them into a list first.
+ *
+ * The opening bracket is written together with the first value, which is flushed immediately, so that an error
+ * raised before any value has been produced is still handled by Spring MVC. The subsequent values are buffered only
+ * by the JSON generator and the container, so the memory used by the request does not depend on the result size.
+ *
+ * @author Jakub Narloch
+ */
+public class JsonArrayResponseObserver<T> extends DisposableObserver<T> implements Runnable, TrackedObserver {
+
+    private final ObjectWriter objectWriter;
+
+    private final ResponseStream responseStream;
+
+    private final RequestLifecycle lifecycle = RequestLifecycle.start(this);
+
+    private final TerminationSerializer serializer = new TerminationSerializer();
+
+    private JsonGenerator generator;
+
+    public JsonArrayResponseObserver(Observable<T> observable, ObjectMapper objectMapper, ResponseStream responseStream) {
+
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.responseStream = responseStream;
+        this.responseStream.onTimeout(lifecycle.onTimeout(this));
+        this.responseStream.onCompletion(this);
+        lifecycle.onSubscribe();
+        observable.subscribe(this);
+    }
+
+    @Override
+    public void onNext(T value) {
+
+        if (!serializer.enter()) {
+            return;
+        }
+        lifecycle.onItem();
+        try {
+            if (generator == null) {
+                open();
+                objectWriter.writeValue(generator, value);
+                generator.flush();
+            } else {
+                objectWriter.writeValue(generator, value);
+            }
+        } catch (IOException e) {
+            dispose();
+            responseStream.completeWithError(e);
+        } finally {
+            serializer.exit();
+        }
+    }
+
+    @Override
+    public void onError(final Throwable e) {
+        serializer.terminate(new Runnable() {
+            @Override
+            public void run() {
+                lifecycle.onError();
+                responseStream.completeWithError(e);
+            }
+        });
+    }
+
+    @Override
+    public void onComplete() {
+        serializer.terminate(new Runnable() {
+            @Override
+            public void run() {
+                complete();
+            }
+        });
+    }
+
+    @Override
+    public void run() {
+        lifecycle.onDispose();
+        this.dispose();
+    }
+
+    private void complete() {
+        try {
+            if (generator == null) {
+                open();
+            }
+            generator.writeEndArray();
+            generator.close();
+            lifecycle.onComplete();
+            responseStream.complete();
+        } catch (IOException e) {
+            responseStream.completeWithError(e);
+        }
+    }
+
+    private void open() throws IOException {
+        generator = objectWriter.getFactory()
+                .createGenerator(responseStream.open(MediaType.APPLICATION_JSON_UTF8), JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartArray();
+    }
+
+    @Override
+    public void abort(Throwable cause) {
+        dispose();
+        onError(cause);
+    }
+
+    @Override
+    public boolean shutdown() {
+        return false;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return 0;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Maybe;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * A specialized {@link DeferredResult} that handles {@link Maybe} return type. A {@link Maybe} that completes
+ * without a value results in {@code 404 Not Found} response.
+ *
+ * The response without a body is written directly on the native response of the given request, so the instance can
+ * be created on any thread.
+ *
+ * @author Jakub Narloch
+ * @see DeferredResult
+ */
+public class MaybeDeferredResult<T> extends TimedDeferredResult<Object> {
+
+    private static final Object EMPTY_RESULT = new Object();
+
+    private final MaybeDeferredResultObserver<T> observer;
+
+    public MaybeDeferredResult(Maybe<T> maybe, NativeWebRequest webRequest) {
+        this(null, EMPTY_RESULT, maybe, webRequest);
+    }
+
+    public MaybeDeferredResult(long timeout, Maybe<T> maybe, NativeWebRequest webRequest) {
+        this(timeout, EMPTY_RESULT, maybe, webRequest);
+    }
+
+    public MaybeDeferredResult(Long timeout, Object timeoutResult, Maybe<T> maybe, NativeWebRequest webRequest) {
+        super(timeout, timeoutResult);
+        Assert.notNull(maybe, "maybe can not be null");
+        Assert.notNull(webRequest, "webRequest can not be null");
+
+        observer = new MaybeDeferredResultObserver<T>(maybe, this, new EmptyResponse(this, webRequest));
+    }
+}
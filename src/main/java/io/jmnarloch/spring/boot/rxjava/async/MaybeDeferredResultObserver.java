@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Maybe;
+import io.reactivex.observers.DisposableMaybeObserver;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * A subscriber that sets the value produced by the {@link Maybe} on the {@link DeferredResult}, or completes the
+ * response with {@code 404 Not Found} in case the {@link Maybe} completes without a value.
+ *
+ * @author Jakub Narloch
+ * @see DeferredResult
+ * @see EmptyResponse
+ */
+class MaybeDeferredResultObserver<T> extends DisposableMaybeObserver<T> implements Runnable, TrackedObserver {
+
+    private final DeferredResult<Object> deferredResult;
+
+    private final EmptyResponse emptyResponse;
+
+    private final RequestLifecycle lifecycle = RequestLifecycle.start(this);
+
+    public MaybeDeferredResultObserver(Maybe<T> maybe, DeferredResult<Object> deferredResult, EmptyResponse emptyResponse) {
+        this.deferredResult = deferredResult;
+        this.emptyResponse = emptyResponse;
+        this.deferredResult.onTimeout(lifecycle.onTimeout(this));
+        this.deferredResult.onCompletion(this);
+        lifecycle.onSubscribe();
+        maybe.subscribe(this);
+    }
+
+    @Override
+    public void onSuccess(T value) {
+        lifecycle.onItem();
+        lifecycle.onComplete();
+        deferredResult.setResult(value);
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        lifecycle.onError();
+        deferredResult.setErrorResult(e);
+    }
+
+    @Override
+    public void onComplete() {
+        lifecycle.onComplete();
+        emptyResponse.send(HttpStatus.NOT_FOUND);
+    }
+
+    @Override
+    public void run() {
+        lifecycle.onDispose();
+        this.dispose();
+    }
+
+    @Override
+    public void abort(Throwable cause) {
+        dispose();
+        onError(cause);
+    }
+
+    @Override
+    public boolean shutdown() {
+        return false;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return 0;
+    }
+}
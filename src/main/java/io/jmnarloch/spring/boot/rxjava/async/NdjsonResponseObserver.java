@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.reactivex.Observable;
+import io.reactivex.functions.Predicate;
+import io.reactivex.observers.DisposableObserver;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriber that writes every value produced by the {@link Observable} as a separate line of newline delimited JSON
+ * directly into the {@link ResponseStream}.
+ *
+ * The values are serialized with a single JSON generator reused for the whole response and are flushed according to
+ * the {@link FlushPolicy}. The first value is always flushed immediately, so that an error raised before any value
+ * has been produced is still handled by Spring MVC. With a timed flush policy the values are collected into batches,
+ * and every batch is written and flushed at once.
+ *
+ * @author Jakub Narloch
+ * @see FlushPolicy
+ */
+public class NdjsonResponseObserver<T> extends DisposableObserver<Object> implements Runnable, TrackedObserver {
+
+    /**
+     * The newline delimited JSON media type.
+     */
+    public static final MediaType APPLICATION_NDJSON = new MediaType("application", "x-ndjson");
+
+    private final ObjectWriter objectWriter;
+
+    private final FlushPolicy flushPolicy;
+
+    private final ResponseStream responseStream;
+
+    private final RequestLifecycle lifecycle = RequestLifecycle.start(this);
+
+    private final TerminationSerializer serializer = new TerminationSerializer();
+
+    private JsonGenerator generator;
+
+    private int unflushed;
+
+    public NdjsonResponseObserver(Observable<T> observable, ObjectMapper objectMapper, FlushPolicy flushPolicy,
+                                  ResponseStream responseStream) {
+
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.flushPolicy = flushPolicy;
+        this.responseStream = responseStream;
+        this.responseStream.onTimeout(lifecycle.onTimeout(this));
+        this.responseStream.onCompletion(this);
+        lifecycle.onSubscribe();
+        source(observable, flushPolicy).subscribe(this);
+    }
+
+    @Override
+    public void onNext(Object value) {
+
+        if (!serializer.enter()) {
+            return;
+        }
+        try {
+            if (flushPolicy.isTimed()) {
+                for (Object item : (List<?>) value) {
+                    write(item);
+                }
+                generator.flush();
+                unflushed = 0;
+            } else {
+                write(value);
+                if (unflushed >= flushPolicy.getItems()) {
+                    generator.flush();
+                    unflushed = 0;
+                }
+            }
+        } catch (IOException e) {
+            dispose();
+            responseStream.completeWithError(e);
+        } finally {
+            serializer.exit();
+        }
+    }
+
+    @Override
+    public void onError(final Throwable e) {
+        serializer.terminate(new Runnable() {
+            @Override
+            public void run() {
+                lifecycle.onError();
+                responseStream.completeWithError(e);
+            }
+        });
+    }
+
+    @Override
+    public void onComplete() {
+        serializer.terminate(new Runnable() {
+            @Override
+            public void run() {
+                complete();
+            }
+        });
+    }
+
+    @Override
+    public void run() {
+        lifecycle.onDispose();
+        this.dispose();
+    }
+
+    @Override
+    public void abort(Throwable cause) {
+        dispose();
+        onError(cause);
+    }
+
+    @Override
+    public boolean shutdown() {
+        // every line is a complete document, so the stream can be ended at any point
+        dispose();
+        onComplete();
+        return true;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return unflushed;
+    }
+
+    private void complete() {
+        try {
+            if (generator == null) {
+                responseStream.open(APPLICATION_NDJSON);
+            } else {
+                generator.close();
+            }
+            lifecycle.onComplete();
+            responseStream.complete();
+        } catch (IOException e) {
+            responseStream.completeWithError(e);
+        }
+    }
+
+    private void write(Object value) throws IOException {
+        lifecycle.onItem();
+        if (generator == null) {
+            generator = objectWriter.getFactory()
+                    .createGenerator(responseStream.open(APPLICATION_NDJSON), JsonEncoding.UTF8);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            objectWriter.writeValue(generator, value);
+            generator.writeRaw('\n');
+            generator.flush();
+            return;
+        }
+        objectWriter.writeValue(generator, value);
+        generator.writeRaw('\n');
+        unflushed++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Observable<Object> source(Observable<T> observable, FlushPolicy flushPolicy) {
+        if (!flushPolicy.isTimed()) {
+            return (Observable<Object>) observable;
+        }
+        final int maxItems = flushPolicy.getItems() > 0 ? flushPolicy.getItems() : Integer.MAX_VALUE;
+        return observable
+                .buffer(flushPolicy.getInterval(), TimeUnit.MILLISECONDS, maxItems)
+                .filter(new Predicate<List<T>>() {
+                    @Override
+                    public boolean test(List<T> values) {
+                        return !values.isEmpty();
+                    }
+                })
+                .cast(Object.class);
+    }
+}
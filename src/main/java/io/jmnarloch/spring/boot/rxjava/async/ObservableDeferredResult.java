@@ -27,7 +27,7 @@ import java.util.List;
  * @author Jakub Narloch
  * @see DeferredResult
  */
-public class ObservableDeferredResult<T> extends DeferredResult<List<T>> {
+public class ObservableDeferredResult<T> extends TimedDeferredResult<List<T>> {
 
     private static final Object EMPTY_RESULT = new Object();
 
@@ -45,6 +45,6 @@ public class ObservableDeferredResult<T> extends DeferredResult<List<T>> {
         super(timeout, timeoutResult);
         Assert.notNull(observable, "observable can not be null");
 
-        observer = new DeferredResultObserver<List<T>>(observable.toList().toObservable(), this);
+        observer = new DeferredResultObserver<List<T>>(observable.toList(), this);
     }
 }
@@ -15,20 +15,59 @@
  */
 package io.jmnarloch.spring.boot.rxjava.async;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
 import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import io.reactivex.Observable;
 
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * A specialized {@link SseEmitter} that handles {@link Observable} types. The emitter subscribes to the
  * passed {@link Observable} instance and emits every produced value through {@link #send(Object, MediaType)}.
+ * Values of type {@link SseEventBuilder} are sent as they are, which allows to control the event name or id. Values of
+ * type {@link SseEvent} are rendered by the emitter itself in a single pass and written with a single write.
+ *
+ * The {@link Observable} is subscribed only once the emitter has been returned from the handler method, on the
+ * scheduler configured for the RxJava return values, if any. An emitter of a {@link SseTopic} resumes the topic
+ * after the event identified by the {@code Last-Event-ID} header of the request.
+ *
+ * When batching is enabled through {@link SseEmitterOptions} the events produced within the configured window are
+ * rendered by the emitter itself and written into the response with a single write and flush.
+ *
+ * In the non-blocking mode the events are rendered by the emitter itself, queued or conflated per connection and
+ * written using the Servlet 3.1 non-blocking IO, so that a slow client never blocks the thread producing the events. The emitter is
+ * then driven only by the {@link Observable} and must be returned from a handler method declaring
+ * {@link ObservableSseEmitter} as its return type.
+ *
+ * The events rendered by the emitter itself serialize the values that are not a {@link CharSequence} into JSON, so
+ * batching or the non-blocking mode accept only a JSON or text media type.
  *
  * @author Jakub Narloch
  * @see SseEmitter
+ * @see SseEmitterOptions
  */
 public class ObservableSseEmitter<T> extends SseEmitter {
 
-    private final ResponseBodyEmitterObserver<T> observer;
+    private static final MediaType TEXT_EVENT_STREAM = new MediaType("text", "event-stream");
+
+    private final MediaType mediaType;
+
+    private final Observable<T> observable;
+
+    private final SseEmitterOptions options;
+
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    private volatile SseEventEncoder encoder;
 
     public ObservableSseEmitter(Observable<T> observable) {
         this(null, observable);
@@ -39,7 +78,176 @@ public class ObservableSseEmitter<T> extends SseEmitter {
     }
 
     public ObservableSseEmitter(Long timeout, MediaType mediaType, Observable<T> observable) {
+        this(timeout, mediaType, observable, new SseEmitterOptions());
+    }
+
+    public ObservableSseEmitter(MediaType mediaType, Observable<T> observable, SseEmitterOptions options) {
+        this(null, mediaType, observable, options);
+    }
+
+    public ObservableSseEmitter(Long timeout, MediaType mediaType, Observable<T> observable, SseEmitterOptions options) {
         super(timeout);
-        this.observer = new ResponseBodyEmitterObserver<T>(mediaType, observable, this);
+        Assert.notNull(observable, "observable can not be null");
+        Assert.notNull(options, "options can not be null");
+        Assert.isTrue(!(options.isBatching() && options.isConflating()), "The events can not be batched and conflated");
+        Assert.isTrue(!options.isHeartbeat() || options.isNonBlocking(), "The heartbeat requires the non-blocking mode");
+        Assert.isTrue(!options.isGzip() || options.isNonBlocking(), "The compression requires the non-blocking mode");
+        Assert.isTrue(!(options.isBatching() || options.isNonBlocking()) || SseEventEncoder.supports(mediaType),
+                "The events rendered by the emitter can be only serialized into JSON or text");
+        this.mediaType = mediaType;
+        this.observable = observable;
+        this.options = options;
+        this.encoder = SseEventEncoder.forObjectMapper(options.getObjectMapper(), mediaType);
+    }
+
+    /**
+     * Returns whether the emitter writes the events itself using the non-blocking IO.
+     *
+     * @return whether the emitter is non-blocking
+     */
+    public boolean isNonBlocking() {
+        return options.isNonBlocking();
+    }
+
+    /**
+     * Subscribes the emitter to the {@link Observable}, once the emitter has been initialized by Spring MVC.
+     *
+     * @param scheduler    the scheduler to subscribe on, may be {@code null}
+     * @param objectMapper the object mapper used unless the options specify one, may be {@code null}
+     * @param lastEventId  the id of the last event received by the client, may be {@code null}
+     */
+    public void subscribe(Scheduler scheduler, ObjectMapper objectMapper, String lastEventId) {
+        Assert.state(!isNonBlocking(), "The non-blocking emitter has to be connected with the response stream");
+        new ResponseBodyEmitterObserver<Object>(mediaType, events(scheduler, objectMapper, lastEventId), this);
+    }
+
+    /**
+     * Connects the non-blocking emitter with the response and subscribes it to the {@link Observable}.
+     *
+     * @param responseStream the response stream
+     * @param scheduler      the scheduler to subscribe on, may be {@code null}
+     * @param objectMapper   the object mapper used unless the options specify one, may be {@code null}
+     * @param lastEventId    the id of the last event received by the client, may be {@code null}
+     */
+    public void connect(ResponseStream responseStream, Scheduler scheduler, ObjectMapper objectMapper, String lastEventId) {
+        Assert.state(isNonBlocking(), "Only the non-blocking emitter can be connected with the response stream");
+        final SseResponseObserver<Object> responseObserver =
+                new SseResponseObserver<Object>(events(scheduler, objectMapper, lastEventId), encoder, eventQueue(options));
+        if (options.isHeartbeat()) {
+            responseObserver.heartbeat(options.getTimer(), options.getHeartbeatInterval());
+        }
+        if (options.isGzip()) {
+            responseObserver.gzip(options.getCompressionLevel());
+        }
+        responseObserver.connect(responseStream);
+    }
+
+    @Override
+    public void send(Object object, MediaType mediaType) throws IOException {
+        Assert.state(!isNonBlocking(), "The non-blocking emitter sends only the events produced by the Observable");
+        if (object instanceof SseEvent || object instanceof EncodedSseEvents) {
+            send(new EncodedSseEventBuilder(encoder.encode(object)));
+        } else if (object instanceof SseEventBuilder) {
+            send((SseEventBuilder) object);
+        } else {
+            super.send(object, mediaType);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Observable<Object> events(Scheduler scheduler, ObjectMapper objectMapper, String lastEventId) {
+        Assert.state(subscribed.compareAndSet(false, true), "The emitter has been already subscribed");
+        if (options.getObjectMapper() == null && objectMapper != null) {
+            encoder = SseEventEncoder.forObjectMapper(objectMapper, mediaType);
+        }
+        Observable<T> events = observable instanceof SseTopic ? ((SseTopic<T>) observable).resume(lastEventId) : observable;
+        if (scheduler != null) {
+            events = events.subscribeOn(scheduler);
+        }
+        return options.isBatching() ? batch(events, encoder, options) : (Observable<Object>) events;
+    }
+
+    private static EventQueue eventQueue(SseEmitterOptions options) {
+        if (options.isConflating()) {
+            return new ConflatingEventQueue(options.getConflationKey());
+        }
+        return new BoundedEventQueue(options.getQueueCapacity(), options.getOverflowPolicy());
+    }
+
+    private static <T> Observable<Object> batch(Observable<T> observable, final SseEventEncoder encoder,
+                                                SseEmitterOptions options) {
+        return observable
+                .buffer(options.getBatchLatency(), options.getBatchLatencyUnit(), options.getBatchSize())
+                .filter(new Predicate<List<T>>() {
+                    @Override
+                    public boolean test(List<T> events) {
+                        return !events.isEmpty();
+                    }
+                })
+                .map(new Function<List<T>, Object>() {
+                    @Override
+                    public Object apply(List<T> events) throws Exception {
+                        return new EncodedSseEvents(encoder.encode(events));
+                    }
+                });
+    }
+
+    /**
+     * Writes the event frames rendered by the emitter as they are, followed by the event built through the builder,
+     * if any.
+     */
+    private static class EncodedSseEventBuilder implements SseEventBuilder {
+
+        private final byte[] frames;
+
+        private final SseEventBuilder event = SseEmitter.event();
+
+        EncodedSseEventBuilder(byte[] frames) {
+            this.frames = frames;
+        }
+
+        @Override
+        public SseEventBuilder comment(String comment) {
+            event.comment(comment);
+            return this;
+        }
+
+        @Override
+        public SseEventBuilder name(String eventName) {
+            event.name(eventName);
+            return this;
+        }
+
+        @Override
+        public SseEventBuilder id(String id) {
+            event.id(id);
+            return this;
+        }
+
+        @Override
+        public SseEventBuilder reconnectTime(long reconnectTimeMillis) {
+            event.reconnectTime(reconnectTimeMillis);
+            return this;
+        }
+
+        @Override
+        public SseEventBuilder data(Object object) {
+            event.data(object);
+            return this;
+        }
+
+        @Override
+        public SseEventBuilder data(Object object, MediaType mediaType) {
+            event.data(object, mediaType);
+            return this;
+        }
+
+        @Override
+        public Set<DataWithMediaType> build() {
+            final Set<DataWithMediaType> data = new LinkedHashSet<DataWithMediaType>();
+            data.add(new DataWithMediaType(frames, TEXT_EVENT_STREAM));
+            data.addAll(event.build());
+            return data;
+        }
     }
 }
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+/**
+ * Defines what happens with the events produced while the outbound queue of a connection is full.
+ *
+ * @author Jakub Narloch
+ * @see SseEmitterOptions#nonBlocking(int, OverflowPolicy)
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The newly produced event is dropped.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest queued event is dropped to make room for the newly produced one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The upstream subscription is disposed and the connection is closed.
+     */
+    DISCONNECT
+}
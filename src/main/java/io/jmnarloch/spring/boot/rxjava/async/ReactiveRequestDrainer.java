@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.util.Assert;
+
+/**
+ * Drains the {@link ReactiveRequestRegistry} once the application context is closed, before the servlet container is
+ * stopped. From then on the new reactive requests are rejected, the open streams are completed and the pending
+ * requests are given the configured time to finish.
+ *
+ * @author Jakub Narloch
+ * @see ReactiveRequestRegistry#drain(long)
+ */
+public class ReactiveRequestDrainer implements ApplicationListener<ContextClosedEvent>, ApplicationContextAware {
+
+    private static final Log logger = LogFactory.getLog(ReactiveRequestDrainer.class);
+
+    private final ReactiveRequestRegistry registry;
+
+    private final long timeout;
+
+    private ApplicationContext applicationContext;
+
+    /**
+     * Creates new instance of {@link ReactiveRequestDrainer}.
+     *
+     * @param registry the registry
+     * @param timeout  the time to wait for the pending requests, in milliseconds
+     */
+    public ReactiveRequestDrainer(ReactiveRequestRegistry registry, long timeout) {
+        Assert.notNull(registry, "registry can not be null");
+        this.registry = registry;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        if (event.getApplicationContext() != applicationContext) {
+            return;
+        }
+        try {
+            final int terminated = registry.drain(timeout);
+            if (terminated > 0) {
+                logger.warn(terminated + " reactive request(s) did not finish within " + timeout + " ms on shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
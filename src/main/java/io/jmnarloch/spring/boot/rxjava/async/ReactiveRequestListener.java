@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+/**
+ * Receives the notifications about the lifecycle of the reactive requests processed by a single handler method.
+ * The latencies are measured in nanoseconds from the moment the observer subscribes. Every request is terminated by
+ * exactly one of {@link #onComplete}, {@link #onError}, {@link #onTimeout} and {@link #onDispose}, each receiving the
+ * latency of the termination and the number of items emitted until then.
+ *
+ * @author Jakub Narloch
+ * @see ReactiveRequestListenerFactory
+ */
+public interface ReactiveRequestListener {
+
+    void onSubscribe();
+
+    void onFirstItem(long latency);
+
+    void onComplete(long latency, long items);
+
+    void onError(long latency, long items);
+
+    void onTimeout(long latency, long items);
+
+    void onDispose(long latency, long items);
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the reactive requests that are in flight, that is the pending {@link org.springframework.web.context.request.async.DeferredResult}s
+ * and the open response streams and emitters, together with the handler method that created them.
+ *
+ * The requests are held in a {@link ConcurrentHashMap}, so that registering and unregistering the requests on many
+ * threads at once does not contend on a single lock. The views returned by the registry are weakly consistent
+ * snapshots.
+ *
+ * On shutdown the registry drains the requests: the streams are completed right away, so that the clients reconnect
+ * to another node, while the requests producing a single response are given a deadline to finish.
+ *
+ * @author Jakub Narloch
+ * @see ActiveRequest
+ */
+public class ReactiveRequestRegistry {
+
+    private final ConcurrentMap<Long, RequestLifecycle> requests = new ConcurrentHashMap<Long, RequestLifecycle>();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final Object drainMonitor = new Object();
+
+    private volatile boolean draining;
+
+    void register(RequestLifecycle lifecycle) {
+        lifecycle.setId(ids.incrementAndGet());
+        requests.put(lifecycle.getId(), lifecycle);
+    }
+
+    void unregister(long id) {
+        requests.remove(id);
+        if (draining) {
+            synchronized (drainMonitor) {
+                drainMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the registry is being drained, in which case no new requests should be accepted.
+     *
+     * @return whether the registry is being drained
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * Drains the requests in flight. The streams are completed immediately, the remaining requests are awaited up to
+     * the given timeout and then terminated with the {@link RequestDrainedException}.
+     *
+     * @param timeout the time to wait for the requests to finish, in milliseconds
+     * @return the number of the requests terminated after the timeout
+     * @throws InterruptedException if the current thread has been interrupted
+     */
+    public int drain(long timeout) throws InterruptedException {
+        draining = true;
+        for (RequestLifecycle lifecycle : requests.values()) {
+            lifecycle.shutdown();
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        synchronized (drainMonitor) {
+            long remaining;
+            while (!requests.isEmpty() && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(drainMonitor, remaining);
+            }
+        }
+
+        int count = 0;
+        for (RequestLifecycle lifecycle : requests.values()) {
+            lifecycle.abort(new RequestDrainedException("The application is shutting down"));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of the requests in flight.
+     *
+     * @return the number of the requests
+     */
+    public int getCount() {
+        return requests.size();
+    }
+
+    /**
+     * Returns the number of the requests in flight per handler method.
+     *
+     * @return the number of the requests per handler
+     */
+    public Map<String, Integer> getCountByHandler() {
+        final Map<String, Integer> counts = new TreeMap<String, Integer>();
+        for (RequestLifecycle lifecycle : requests.values()) {
+            final Integer count = counts.get(lifecycle.getHandler());
+            counts.put(lifecycle.getHandler(), count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the requests in flight.
+     *
+     * @return the requests
+     */
+    public List<ActiveRequest> getActiveRequests() {
+        final List<ActiveRequest> result = new ArrayList<ActiveRequest>(requests.size());
+        for (RequestLifecycle lifecycle : requests.values()) {
+            result.add(lifecycle.snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * Disposes the request with the given id, the response is terminated with an error.
+     *
+     * @param id the request id
+     * @return whether the request has been found
+     */
+    public boolean dispose(long id) {
+        final RequestLifecycle lifecycle = requests.get(id);
+        if (lifecycle == null) {
+            return false;
+        }
+        lifecycle.abort(new CancellationException("The request has been disposed"));
+        return true;
+    }
+
+    /**
+     * Disposes all of the requests of the given handler method.
+     *
+     * @param handler the handler method name, as reported by {@link ActiveRequest#getHandler()}
+     * @return the number of the disposed requests
+     */
+    public int dispose(String handler) {
+        int count = 0;
+        for (RequestLifecycle lifecycle : requests.values()) {
+            if (handler.equals(lifecycle.getHandler())) {
+                lifecycle.abort(new CancellationException("The request has been disposed"));
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Raised for the request that has not finished before the application has been shut down.
+ *
+ * @author Jakub Narloch
+ * @see ReactiveRequestRegistry#drain(long)
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class RequestDrainedException extends CancellationException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RequestDrainedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Records the lifecycle of a single reactive request and reports it to the {@link ReactiveRequestListener} bound to
+ * the request thread at the time the observer has been created. When a {@link ReactiveRequestRegistry} is bound as
+ * well the request is tracked by the registry until it terminates.
+ *
+ * When nothing is bound a shared, disabled instance is used, so that the observers do not allocate anything.
+ *
+ * @author Jakub Narloch
+ */
+public class RequestLifecycle {
+
+    private static final ThreadLocal<Binding> CURRENT_BINDING = new ThreadLocal<Binding>();
+
+    private static final RequestLifecycle DISABLED = new RequestLifecycle(null, null, null, null);
+
+    private static final AtomicIntegerFieldUpdater<RequestLifecycle> TERMINATED =
+            AtomicIntegerFieldUpdater.newUpdater(RequestLifecycle.class, "terminated");
+
+    private final ReactiveRequestListener listener;
+
+    private final ReactiveRequestRegistry registry;
+
+    private final String handler;
+
+    private final TrackedObserver observer;
+
+    private final boolean enabled;
+
+    private final long startTime;
+
+    private long id;
+
+    private volatile long items;
+
+    private volatile int terminated;
+
+    RequestLifecycle(ReactiveRequestListener listener, ReactiveRequestRegistry registry, String handler,
+                     TrackedObserver observer) {
+        this.listener = listener;
+        this.registry = registry;
+        this.handler = handler;
+        this.observer = observer;
+        this.enabled = listener != null || registry != null;
+        this.startTime = enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Binds the listener to the current thread. Any observer created on this thread reports to this listener.
+     *
+     * @param listener the listener
+     */
+    public static void bind(ReactiveRequestListener listener) {
+        bind(listener, null, null);
+    }
+
+    /**
+     * Binds the listener and the registry to the current thread. Any observer created on this thread reports to this
+     * listener and is tracked by the registry under the given handler name.
+     *
+     * @param listener the listener, may be {@code null}
+     * @param registry the registry, may be {@code null}
+     * @param handler  the name of the handler method
+     */
+    public static void bind(ReactiveRequestListener listener, ReactiveRequestRegistry registry, String handler) {
+        CURRENT_BINDING.set(new Binding(listener, registry, handler));
+    }
+
+    /**
+     * Removes the listener bound to the current thread.
+     */
+    public static void unbind() {
+        CURRENT_BINDING.remove();
+    }
+
+    static RequestLifecycle start(TrackedObserver observer) {
+        final Binding binding = CURRENT_BINDING.get();
+        if (binding == null || (binding.listener == null && binding.registry == null)) {
+            return DISABLED;
+        }
+        return new RequestLifecycle(binding.listener, binding.registry, binding.handler, observer);
+    }
+
+    /**
+     * Invoked once the observer is fully initialized and about to subscribe, from then on the request is tracked by
+     * the registry.
+     */
+    void onSubscribe() {
+        if (listener != null) {
+            listener.onSubscribe();
+        }
+        if (registry != null) {
+            registry.register(this);
+        }
+    }
+
+    /**
+     * Wraps the timeout callback of the observer. The timeout terminates the request, so that the disposal that
+     * follows it is not reported.
+     */
+    Runnable onTimeout(final Runnable callback) {
+        if (!enabled) {
+            return callback;
+        }
+        return new Runnable() {
+            @Override
+            public void run() {
+                if (terminate() && listener != null) {
+                    listener.onTimeout(System.nanoTime() - startTime, items);
+                }
+                callback.run();
+            }
+        };
+    }
+
+    void onItem() {
+        if (enabled && items++ == 0 && listener != null) {
+            listener.onFirstItem(System.nanoTime() - startTime);
+        }
+    }
+
+    void onComplete() {
+        if (enabled && terminate()) {
+            if (listener != null) {
+                listener.onComplete(System.nanoTime() - startTime, items);
+            }
+        }
+    }
+
+    void onError() {
+        if (enabled && terminate()) {
+            if (listener != null) {
+                listener.onError(System.nanoTime() - startTime, items);
+            }
+        }
+    }
+
+    void onDispose() {
+        if (enabled && terminate()) {
+            if (listener != null) {
+                listener.onDispose(System.nanoTime() - startTime, items);
+            }
+        }
+    }
+
+    long getId() {
+        return id;
+    }
+
+    void setId(long id) {
+        this.id = id;
+    }
+
+    String getHandler() {
+        return handler;
+    }
+
+    ActiveRequest snapshot() {
+        return new ActiveRequest(id, handler, observer.getClass().getSimpleName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), items, observer.getQueueDepth());
+    }
+
+    boolean shutdown() {
+        return terminated == 0 && observer.shutdown();
+    }
+
+    void abort(Throwable cause) {
+        if (terminated == 0) {
+            observer.abort(cause);
+        }
+    }
+
+    private boolean terminate() {
+        if (!TERMINATED.compareAndSet(this, 0, 1)) {
+            return false;
+        }
+        if (registry != null) {
+            registry.unregister(id);
+        }
+        return true;
+    }
+
+    private static class Binding {
+
+        private final ReactiveRequestListener listener;
+
+        private final ReactiveRequestRegistry registry;
+
+        private final String handler;
+
+        Binding(ReactiveRequestListener listener, ReactiveRequestRegistry registry, String handler) {
+            this.listener = listener;
+            this.registry = registry;
+            this.handler = handler;
+        }
+    }
+}
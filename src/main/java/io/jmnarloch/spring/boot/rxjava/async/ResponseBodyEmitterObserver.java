@@ -28,50 +28,85 @@ import java.io.IOException;
  *
  * @author Jakub Narloch
  */
-class ResponseBodyEmitterObserver<T> extends DisposableObserver<T> implements Runnable {
+class ResponseBodyEmitterObserver<T> extends DisposableObserver<T> implements Runnable, TrackedObserver {
 
     private final MediaType mediaType;
 
     private final ResponseBodyEmitter responseBodyEmitter;
 
-    private boolean completed;
+    private final RequestLifecycle lifecycle = RequestLifecycle.start(this);
+
+    private final TerminationSerializer serializer = new TerminationSerializer();
 
     public ResponseBodyEmitterObserver(MediaType mediaType, Observable<T> observable, ResponseBodyEmitter responseBodyEmitter) {
 
         this.mediaType = mediaType;
         this.responseBodyEmitter = responseBodyEmitter;
-        this.responseBodyEmitter.onTimeout(this);
+        this.responseBodyEmitter.onTimeout(lifecycle.onTimeout(this));
         this.responseBodyEmitter.onCompletion(this);
+        lifecycle.onSubscribe();
         observable.subscribe(this);
     }
 
     @Override
     public void onNext(T value) {
 
+        if (!serializer.enter()) {
+            return;
+        }
         try {
-            if(!completed) {
-                responseBodyEmitter.send(value, mediaType);
-            }
+            lifecycle.onItem();
+            responseBodyEmitter.send(value, mediaType);
         } catch (IOException e) {
             throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            serializer.exit();
         }
     }
 
     @Override
-    public void onError(Throwable e) {
-        responseBodyEmitter.completeWithError(e);
+    public void onError(final Throwable e) {
+        serializer.terminate(new Runnable() {
+            @Override
+            public void run() {
+                lifecycle.onError();
+                responseBodyEmitter.completeWithError(e);
+            }
+        });
     }
 
     @Override
     public void onComplete() {
-        if(!completed) {
-            completed = true;
-            responseBodyEmitter.complete();
-        }
+        serializer.terminate(new Runnable() {
+            @Override
+            public void run() {
+                lifecycle.onComplete();
+                responseBodyEmitter.complete();
+            }
+        });
     }
 
     @Override
     public void run() {
+        lifecycle.onDispose();
         this.dispose();
     }
+
+    @Override
+    public void abort(Throwable cause) {
+        dispose();
+        onError(cause);
+    }
+
+    @Override
+    public boolean shutdown() {
+        dispose();
+        onComplete();
+        return true;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return 0;
+    }
 }
@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.disposables.Disposable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Gives direct access to the body of an asynchronously processed response, so that the values produced by the
+ * reactive types can be written as soon as they are emitted.
+ *
+ * The stream is backed by a {@link DeferredResult} that never receives a value. It is used only for propagating the
+ * errors that happen before any content has been written and for receiving the timeout and completion notifications.
+ * Once the content has been written the underlying {@link javax.servlet.AsyncContext} is completed directly, without
+ * dispatching the request back to the container.
+ *
+ * The timeout of an opened stream is driven by the {@link HashedWheelTimer}, so that the streams are closed on time
+ * without relying on the timeout sweep of the container, which is left as a fallback.
+ *
+ * @author Jakub Narloch
+ * @see DeferredResult
+ */
+public class ResponseStream {
+
+    private final DeferredResult<Object> deferredResult;
+
+    private final HttpServletRequest request;
+
+    private final HttpServletResponse response;
+
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private final AtomicBoolean timedOut = new AtomicBoolean();
+
+    private volatile Disposable timeout;
+
+    private volatile boolean opened;
+
+    private volatile Runnable timeoutCallback;
+
+    private volatile Runnable completionCallback;
+
+    ResponseStream(DeferredResult<Object> deferredResult, HttpServletRequest request, HttpServletResponse response) {
+        this.deferredResult = deferredResult;
+        this.request = request;
+        this.response = response;
+        this.deferredResult.onTimeout(new Runnable() {
+            @Override
+            public void run() {
+                handleTimeout();
+            }
+        });
+        this.deferredResult.onCompletion(new Runnable() {
+            @Override
+            public void run() {
+                handleCompletion();
+            }
+        });
+    }
+
+    /**
+     * Starts the asynchronous processing of the current request.
+     *
+     * @param timeout      the processing timeout in milliseconds, or {@code null} for the container default
+     * @param mavContainer the model and view container
+     * @param webRequest   the current request
+     * @return the response stream
+     * @throws Exception if the asynchronous processing could not be started
+     */
+    public static ResponseStream start(Long timeout, ModelAndViewContainer mavContainer, NativeWebRequest webRequest)
+            throws Exception {
+
+        final DeferredResult<Object> deferredResult = new DeferredResult<Object>(timeout);
+        WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(deferredResult, mavContainer);
+        final ResponseStream responseStream = new ResponseStream(deferredResult,
+                webRequest.getNativeRequest(HttpServletRequest.class),
+                webRequest.getNativeResponse(HttpServletResponse.class));
+        if (timeout != null && timeout > 0) {
+            responseStream.scheduleTimeout(HashedWheelTimer.getDefault(), timeout);
+        }
+        return responseStream;
+    }
+
+    /**
+     * Opens the response body for writing. The content type is set only on the first invocation.
+     *
+     * @param contentType the response content type
+     * @return the response output stream
+     * @throws IOException if any error occurs
+     */
+    public ServletOutputStream open(MediaType contentType) throws IOException {
+        if (!opened) {
+            response.setContentType(contentType.toString());
+            opened = true;
+        }
+        return response.getOutputStream();
+    }
+
+    /**
+     * Opens the response body for writing content in the given encoding, see {@link #open(MediaType)}.
+     *
+     * @param contentType     the response content type
+     * @param contentEncoding the response content encoding
+     * @return the response output stream
+     * @throws IOException if any error occurs
+     */
+    public ServletOutputStream open(MediaType contentType, String contentEncoding) throws IOException {
+        if (!opened) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return open(contentType);
+    }
+
+    /**
+     * Returns whether the client accepts the response in the given content encoding.
+     *
+     * @param contentEncoding the content encoding
+     * @return whether the encoding is accepted
+     */
+    public boolean acceptsEncoding(String contentEncoding) {
+        final Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (headers != null && headers.hasMoreElements()) {
+            for (String token : StringUtils.commaDelimitedListToStringArray(headers.nextElement())) {
+                final String[] parts = token.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase(contentEncoding)
+                        && !(parts.length > 1 && parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public String getRequestHeader(String name) {
+        return request.getHeader(name);
+    }
+
+    /**
+     * Sets the response status, as long as nothing has been written yet.
+     *
+     * @param status the response status
+     */
+    public void setStatus(HttpStatus status) {
+        if (!opened) {
+            response.setStatus(status.value());
+        }
+    }
+
+    /**
+     * Sets the response header, as long as nothing has been written yet.
+     *
+     * @param name  the header name
+     * @param value the header value
+     */
+    public void setHeader(String name, String value) {
+        if (!opened) {
+            response.setHeader(name, value);
+        }
+    }
+
+    public boolean isOpened() {
+        return opened;
+    }
+
+    public boolean isCompleted() {
+        return completed.get();
+    }
+
+    public void onTimeout(Runnable callback) {
+        this.timeoutCallback = callback;
+    }
+
+    public void onCompletion(Runnable callback) {
+        this.completionCallback = callback;
+    }
+
+    /**
+     * Completes the response.
+     */
+    public void complete() {
+        if (completed.compareAndSet(false, true)) {
+            request.getAsyncContext().complete();
+        }
+    }
+
+    /**
+     * Completes the response with an error. The error is handled by Spring MVC as long as nothing has been written
+     * yet, otherwise the response is simply completed, leaving the client with an incomplete body.
+     *
+     * @param error the error
+     */
+    public void completeWithError(Throwable error) {
+        if (opened) {
+            complete();
+        } else if (completed.compareAndSet(false, true)) {
+            deferredResult.setErrorResult(error);
+        }
+    }
+
+    void scheduleTimeout(HashedWheelTimer timer, long timeout) {
+        this.timeout = timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                // the stream that has not been opened yet is timed out by the container, so that the timeout is
+                // handled by Spring MVC
+                if (opened && !completed.get()) {
+                    handleTimeout();
+                }
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+    }
+
+    private void handleTimeout() {
+        if (!timedOut.compareAndSet(false, true)) {
+            return;
+        }
+        final Runnable callback = timeoutCallback;
+        if (callback != null) {
+            callback.run();
+        }
+        if (opened) {
+            complete();
+        }
+    }
+
+    private void handleCompletion() {
+        completed.set(true);
+        final Disposable timeout = this.timeout;
+        if (timeout != null) {
+            timeout.dispose();
+        }
+        final Runnable callback = completionCallback;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+}
@@ -25,7 +25,7 @@ import io.reactivex.Single;
  * @author Jakub Narloch
  * @see DeferredResult
  */
-public class SingleDeferredResult<T> extends DeferredResult<T> {
+public class SingleDeferredResult<T> extends TimedDeferredResult<T> {
 
     private static final Object EMPTY_RESULT = new Object();
 
@@ -43,6 +43,6 @@ public class SingleDeferredResult<T> extends DeferredResult<T> {
         super(timeout, timeoutResult);
         Assert.notNull(single, "single can not be null");
 
-        observer = new DeferredResultObserver<T>(single.toObservable(), this);
+        observer = new DeferredResultObserver<T>(single, this);
     }
 }
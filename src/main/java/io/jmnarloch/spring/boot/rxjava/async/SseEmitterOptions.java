@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.functions.Function;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * The options that control how the {@link ObservableSseEmitter} writes the events.
+ *
+ * @author Jakub Narloch
+ * @see ObservableSseEmitter
+ */
+public class SseEmitterOptions {
+
+    private static final int NO_COMPRESSION = -2;
+
+    private int batchSize;
+
+    private long batchLatency;
+
+    private TimeUnit batchLatencyUnit = TimeUnit.MILLISECONDS;
+
+    private ObjectMapper objectMapper;
+
+    private int queueCapacity;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+    private Function<Object, ?> conflationKey;
+
+    private long heartbeatInterval;
+
+    private int compressionLevel = NO_COMPRESSION;
+
+    private HashedWheelTimer timer = HashedWheelTimer.getDefault();
+
+    /**
+     * Coalesces the events produced within the given window into a single write and flush. The batch is written
+     * once it reaches the given number of events or once the given latency elapses, whichever comes first.
+     *
+     * @param maxSize    the maximum number of events written at once
+     * @param maxLatency the maximum time the event is delayed
+     * @param unit       the time unit
+     * @return the options
+     */
+    public SseEmitterOptions batch(int maxSize, long maxLatency, TimeUnit unit) {
+        Assert.isTrue(maxSize > 0, "maxSize must be positive");
+        Assert.isTrue(maxLatency > 0, "maxLatency must be positive");
+        Assert.notNull(unit, "unit can not be null");
+        this.batchSize = maxSize;
+        this.batchLatency = maxLatency;
+        this.batchLatencyUnit = unit;
+        return this;
+    }
+
+    /**
+     * Writes the events using the Servlet 3.1 non-blocking IO instead of blocking the thread that produced them. The
+     * events are rendered by the emitter itself and held in a queue of the given capacity until the connection is
+     * ready, once the queue is full the given policy applies.
+     *
+     * @param queueCapacity  the max number of events queued per connection
+     * @param overflowPolicy the policy applied once the queue is full
+     * @return the options
+     */
+    public SseEmitterOptions nonBlocking(int queueCapacity, OverflowPolicy overflowPolicy) {
+        Assert.isTrue(queueCapacity > 0, "queueCapacity must be positive");
+        Assert.notNull(overflowPolicy, "overflowPolicy can not be null");
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * Writes the events using the Servlet 3.1 non-blocking IO, keeping only the newest pending event per key while
+     * the connection is not ready. This suits the streams of the latest state per entity, where the stale values are
+     * of no use to a client that fell behind. The number of pending events is bounded by the number of distinct keys.
+     *
+     * @param keyExtractor the function extracting the key from the event
+     * @param <T>          the type of the events
+     * @return the options
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SseEmitterOptions conflate(Function<? super T, ?> keyExtractor) {
+        Assert.notNull(keyExtractor, "keyExtractor can not be null");
+        this.conflationKey = (Function<Object, ?>) keyExtractor;
+        return this;
+    }
+
+    /**
+     * Writes a comment line to the non-blocking connection that has been idle for the given interval, which keeps the
+     * connection open through the proxies and lets the server detect the clients that went away. The heartbeats of all
+     * of the connections are driven by a single {@link HashedWheelTimer}.
+     *
+     * @param interval the heartbeat interval
+     * @param unit     the time unit
+     * @return the options
+     */
+    public SseEmitterOptions heartbeat(long interval, TimeUnit unit) {
+        Assert.isTrue(interval > 0, "interval must be positive");
+        Assert.notNull(unit, "unit can not be null");
+        this.heartbeatInterval = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * Compresses the non-blocking connections with gzip when the client accepts it. A single compression context is
+     * kept per connection and it is flushed every time the pending events have been written, so the events are not
+     * delayed by the compression.
+     *
+     * The blocking connections can not be compressed, as their events are written by the {@code ResponseBodyEmitter}
+     * through the message converters directly into the container response, which leaves no place for the deflater.
+     *
+     * @return the options
+     */
+    public SseEmitterOptions gzip() {
+        return gzip(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Compresses the non-blocking connections with gzip using the given compression level, see {@link #gzip()}.
+     *
+     * @param level the compression level, from 0 to 9
+     * @return the options
+     */
+    public SseEmitterOptions gzip(int level) {
+        Assert.isTrue(level == Deflater.DEFAULT_COMPRESSION || (level >= 0 && level <= 9), "level is out of range");
+        this.compressionLevel = level;
+        return this;
+    }
+
+    /**
+     * Sets the timer driving the heartbeats, the timer shared by all of the connections is used by default.
+     *
+     * @param timer the timer
+     * @return the options
+     */
+    public SseEmitterOptions timer(HashedWheelTimer timer) {
+        Assert.notNull(timer, "timer can not be null");
+        this.timer = timer;
+        return this;
+    }
+
+    /**
+     * Sets the {@link ObjectMapper} used for serializing the event data when the events are encoded by the emitter
+     * itself, rather than by the Spring's message converters.
+     *
+     * @param objectMapper the object mapper
+     * @return the options
+     */
+    public SseEmitterOptions objectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        return this;
+    }
+
+    public boolean isBatching() {
+        return batchSize > 0;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getBatchLatency() {
+        return batchLatency;
+    }
+
+    public TimeUnit getBatchLatencyUnit() {
+        return batchLatencyUnit;
+    }
+
+    public boolean isNonBlocking() {
+        return queueCapacity > 0 || isConflating();
+    }
+
+    public boolean isConflating() {
+        return conflationKey != null;
+    }
+
+    public Function<Object, ?> getConflationKey() {
+        return conflationKey;
+    }
+
+    public boolean isHeartbeat() {
+        return heartbeatInterval > 0;
+    }
+
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public HashedWheelTimer getTimer() {
+        return timer;
+    }
+
+    public boolean isGzip() {
+        return compressionLevel != NO_COMPRESSION;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+}
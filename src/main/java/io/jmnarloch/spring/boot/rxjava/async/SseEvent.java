@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.Assert;
+
+/**
+ * A server sent event that carries its id and name along with the data.
+ *
+ * The event is rendered into the frame only once per {@link ObjectMapper}, the rendered frame is reused for every
+ * connection the event is sent to, which is the case of the events dispatched through a {@link SseTopic}.
+ *
+ * @author Jakub Narloch
+ * @see ObservableSseEmitter
+ */
+public class SseEvent<T> {
+
+    private final String id;
+
+    private final String name;
+
+    private final T data;
+
+    private volatile EncodedFrame frame;
+
+    public SseEvent(T data) {
+        this(null, null, data);
+    }
+
+    public SseEvent(String id, String name, T data) {
+        Assert.isTrue(id == null || id.indexOf('\n') < 0, "id can not contain line breaks");
+        Assert.isTrue(name == null || name.indexOf('\n') < 0, "name can not contain line breaks");
+        this.id = id;
+        this.name = name;
+        this.data = data;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    byte[] getFrame(ObjectMapper objectMapper) {
+        final EncodedFrame frame = this.frame;
+        return frame != null && frame.objectMapper == objectMapper ? frame.bytes : null;
+    }
+
+    void setFrame(ObjectMapper objectMapper, byte[] bytes) {
+        this.frame = new EncodedFrame(objectMapper, bytes);
+    }
+
+    private static class EncodedFrame {
+
+        private final ObjectMapper objectMapper;
+
+        private final byte[] bytes;
+
+        EncodedFrame(ObjectMapper objectMapper, byte[] bytes) {
+            this.objectMapper = objectMapper;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Renders the values into the server sent event frames in a single pass, serializing any value that is not a
+ * {@link CharSequence} into JSON. The frames are rendered into the {@link SseFrameBuffer} of the current thread and
+ * copied out once, the frames of the {@link SseEvent}s are additionally cached by the events themselves.
+ *
+ * An encoder created for a text media type writes only the {@link CharSequence} values and rejects any other value.
+ *
+ * @author Jakub Narloch
+ */
+class SseEventEncoder {
+
+    private static final SseEventEncoder DEFAULT = new SseEventEncoder(new ObjectMapper());
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean json;
+
+    SseEventEncoder(ObjectMapper objectMapper) {
+        this(objectMapper, null);
+    }
+
+    SseEventEncoder(ObjectMapper objectMapper, MediaType mediaType) {
+        this.objectMapper = objectMapper;
+        this.json = isJson(mediaType);
+    }
+
+    static SseEventEncoder forObjectMapper(ObjectMapper objectMapper, MediaType mediaType) {
+        if (objectMapper == null && isJson(mediaType)) {
+            return DEFAULT;
+        }
+        return new SseEventEncoder(objectMapper != null ? objectMapper : DEFAULT.objectMapper, mediaType);
+    }
+
+    /**
+     * Returns whether the encoder is able to write the data of the given media type.
+     *
+     * @param mediaType the media type, may be {@code null}
+     * @return whether the media type is supported
+     */
+    static boolean supports(MediaType mediaType) {
+        return isJson(mediaType) || MediaType.TEXT_PLAIN.includes(mediaType);
+    }
+
+    private static boolean isJson(MediaType mediaType) {
+        return mediaType == null || MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)
+                || mediaType.getSubtype().endsWith("+json");
+    }
+
+    public byte[] encode(List<?> values) throws IOException {
+        final SseFrameBuffer buffer = SseFrameBuffer.acquire();
+        for (Object value : values) {
+            append(buffer, value);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Renders a single value. The {@link SseEventBuilder} values are rendered the same way Spring MVC renders them,
+     * any other value becomes the data of the event.
+     *
+     * @param value the value
+     * @return the event frame
+     * @throws IOException if the value can not be serialized
+     */
+    public byte[] encode(Object value) throws IOException {
+        if (value instanceof EncodedSseEvents) {
+            return ((EncodedSseEvents) value).getFrames();
+        } else if (value instanceof SseEvent) {
+            return encodeEvent((SseEvent<?>) value);
+        }
+        final SseFrameBuffer buffer = SseFrameBuffer.acquire();
+        append(buffer, value);
+        return buffer.toByteArray();
+    }
+
+    private byte[] encodeEvent(SseEvent<?> event) throws IOException {
+        if (!json) {
+            final SseFrameBuffer buffer = SseFrameBuffer.acquire();
+            appendEvent(buffer, event);
+            return buffer.toByteArray();
+        }
+        byte[] frame = event.getFrame(objectMapper);
+        if (frame == null) {
+            final SseFrameBuffer buffer = SseFrameBuffer.acquire();
+            appendEvent(buffer, event);
+            frame = buffer.toByteArray();
+            event.setFrame(objectMapper, frame);
+        }
+        return frame;
+    }
+
+    private void append(SseFrameBuffer buffer, Object value) throws IOException {
+        if (value instanceof EncodedSseEvents) {
+            buffer.write(((EncodedSseEvents) value).getFrames());
+        } else if (value instanceof SseEvent) {
+            final byte[] frame = json ? ((SseEvent<?>) value).getFrame(objectMapper) : null;
+            if (frame != null) {
+                buffer.write(frame);
+            } else {
+                appendEvent(buffer, (SseEvent<?>) value);
+            }
+        } else if (value instanceof SseEventBuilder) {
+            appendParts(buffer, (SseEventBuilder) value);
+        } else {
+            appendData(buffer, value);
+            buffer.writeAscii("\n");
+        }
+    }
+
+    private void appendEvent(SseFrameBuffer buffer, SseEvent<?> event) throws IOException {
+        if (event.getId() != null) {
+            buffer.writeAscii("id:");
+            buffer.writeUtf8(event.getId());
+            buffer.writeAscii("\n");
+        }
+        if (event.getName() != null) {
+            buffer.writeAscii("event:");
+            buffer.writeUtf8(event.getName());
+            buffer.writeAscii("\n");
+        }
+        appendData(buffer, event.getData());
+        buffer.writeAscii("\n");
+    }
+
+    private void appendParts(SseFrameBuffer buffer, SseEventBuilder builder) throws IOException {
+        for (DataWithMediaType part : builder.build()) {
+            final Object data = part.getData();
+            if (data instanceof byte[]) {
+                buffer.write((byte[]) data);
+            } else if (data instanceof CharSequence) {
+                buffer.writeUtf8((CharSequence) data);
+            } else {
+                objectMapper.writeValue(buffer, data);
+            }
+        }
+    }
+
+    private void appendData(SseFrameBuffer buffer, Object data) throws IOException {
+        buffer.writeAscii("data:");
+        final int from = buffer.size();
+        if (data instanceof CharSequence) {
+            buffer.writeUtf8((CharSequence) data);
+        } else if (json || data == null) {
+            objectMapper.writeValue(buffer, data);
+        } else {
+            throw new HttpMessageNotWritableException("Could not write the event data of type "
+                    + data.getClass().getName() + " as text");
+        }
+        buffer.prefixLines(from, "data:");
+        buffer.writeAscii("\n");
+    }
+}
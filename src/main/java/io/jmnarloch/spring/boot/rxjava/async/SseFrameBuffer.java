@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer the event frames are rendered into. The buffers are pooled per thread, so rendering a frame
+ * allocates only the resulting byte array.
+ *
+ * @author Jakub Narloch
+ */
+class SseFrameBuffer extends OutputStream {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<SseFrameBuffer> BUFFERS = new ThreadLocal<SseFrameBuffer>() {
+        @Override
+        protected SseFrameBuffer initialValue() {
+            return new SseFrameBuffer();
+        }
+    };
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+
+    private int count;
+
+    /**
+     * Retrieves the empty buffer of the current thread.
+     *
+     * @return the buffer
+     */
+    static SseFrameBuffer acquire() {
+        final SseFrameBuffer buffer = BUFFERS.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    /**
+     * Writes the text, that is known to consist of ASCII characters only.
+     *
+     * @param text the text
+     */
+    void writeAscii(String text) {
+        final int length = text.length();
+        ensureCapacity(count + length);
+        for (int index = 0; index < length; index++) {
+            buffer[count++] = (byte) text.charAt(index);
+        }
+    }
+
+    void writeUtf8(CharSequence text) {
+        final byte[] bytes = text.toString().getBytes(UTF_8);
+        write(bytes, 0, bytes.length);
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Prefixes every line that starts after the given position with the given prefix. A line feed byte never occurs
+     * within a multi byte UTF-8 sequence, so the lines can be split at the byte level.
+     *
+     * @param from   the position of the first byte of the first line
+     * @param prefix the line prefix
+     */
+    void prefixLines(int from, String prefix) {
+        int lines = 0;
+        for (int index = from; index < count; index++) {
+            if (buffer[index] == '\n') {
+                lines++;
+            }
+        }
+        if (lines == 0) {
+            return;
+        }
+        final byte[] content = Arrays.copyOfRange(buffer, from, count);
+        count = from;
+        for (byte b : content) {
+            write(b);
+            if (b == '\n') {
+                writeAscii(prefix);
+            }
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    private void reset() {
+        if (buffer.length > MAX_POOLED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        count = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length << 1));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A fixed size ring buffer of the most recent events of a {@link SseTopic}. The slots are allocated up front and
+ * overwritten in place, so recording an event allocates nothing. The buffer is not thread safe.
+ *
+ * Only the {@link SseEvent}s carrying an id are recorded, as a client can resume only after such an event. The values
+ * of any other type are never replayed.
+ *
+ * @author Jakub Narloch
+ */
+class SseReplayBuffer {
+
+    private final Object[] events;
+
+    private int head;
+
+    private int size;
+
+    SseReplayBuffer(int capacity) {
+        this.events = new Object[capacity];
+    }
+
+    void add(Object event) {
+        if (!(event instanceof SseEvent) || ((SseEvent<?>) event).getId() == null) {
+            return;
+        }
+        events[head] = event;
+        head = (head + 1) % events.length;
+        if (size < events.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Discards the recorded events.
+     */
+    void clear() {
+        Arrays.fill(events, null);
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Retrieves the events recorded after the event with the given id, from the oldest to the newest. If the event
+     * is no longer retained all of the retained events are returned.
+     *
+     * @param lastEventId the id of the last event received by the client
+     * @return the missed events
+     */
+    List<Object> after(String lastEventId) {
+        int skip = 0;
+        for (int offset = 1; offset <= size; offset++) {
+            final Object event = events[index(head - offset)];
+            if (lastEventId.equals(((SseEvent<?>) event).getId())) {
+                skip = size - offset + 1;
+                break;
+            }
+        }
+        if (skip == size) {
+            return Collections.emptyList();
+        }
+        final List<Object> missed = new ArrayList<Object>(size - skip);
+        for (int offset = size - skip; offset > 0; offset--) {
+            missed.add(events[index(head - offset)]);
+        }
+        return missed;
+    }
+
+    private int index(int position) {
+        return (position + events.length) % events.length;
+    }
+}
@@ -0,0 +1,368 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.DisposableObserver;
+import org.springframework.http.MediaType;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Subscriber that writes every value produced by the {@link Observable} as a server sent event into the
+ * {@link ResponseStream} using the Servlet 3.1 non-blocking IO.
+ *
+ * The values are held in the {@link EventQueue} until the connection is ready to accept them, so the thread producing
+ * the values never blocks on the socket. The values are rendered only when they are written, so the values dropped
+ * by the queue are never serialized. The values produced before the response stream is connected are queued as well.
+ *
+ * When the heartbeat is enabled a comment line is written once the connection has been idle for the heartbeat
+ * interval. The heartbeat task is re-armed on the {@link HashedWheelTimer} after every run, so an idle connection costs
+ * a single timer entry and no thread.
+ *
+ * When the compression is enabled and accepted by the client the frames are compressed with a single gzip context per
+ * connection, which is synchronously flushed whenever the queue is drained, so that the events reach the client as
+ * promptly as without the compression.
+ *
+ * @author Jakub Narloch
+ */
+class SseResponseObserver<T> extends DisposableObserver<T> implements Runnable, TrackedObserver {
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(Charset.forName("UTF-8"));
+
+    private static final int NO_COMPRESSION = -2;
+
+    private static final String GZIP = "gzip";
+
+    private static final MediaType TEXT_EVENT_STREAM = new MediaType("text", "event-stream", Charset.forName("UTF-8"));
+
+    private final SseEventEncoder encoder;
+
+    private final EventQueue queue;
+
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final AtomicBoolean terminated = new AtomicBoolean();
+
+    private final WriteListener writeListener = new WriteListener() {
+        @Override
+        public void onWritePossible() throws IOException {
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            cancel();
+            responseStream.complete();
+        }
+    };
+
+    private final RequestLifecycle lifecycle = RequestLifecycle.start(this);
+
+    private volatile ResponseStream responseStream;
+
+    private volatile ServletOutputStream outputStream;
+
+    private volatile boolean done;
+
+    private volatile Throwable error;
+
+    private volatile boolean cancelled;
+
+    private volatile boolean heartbeatPending;
+
+    private volatile long lastWrite = System.nanoTime();
+
+    private volatile Disposable heartbeatTask;
+
+    private HashedWheelTimer timer;
+
+    private long heartbeatInterval;
+
+    private int compressionLevel = NO_COMPRESSION;
+
+    private GzipCompressor compressor;
+
+    private boolean flushed = true;
+
+    SseResponseObserver(Observable<T> observable, SseEventEncoder encoder, EventQueue queue) {
+        this.encoder = encoder;
+        this.queue = queue;
+        lifecycle.onSubscribe();
+        observable.subscribe(this);
+    }
+
+    /**
+     * Enables the heartbeat, must be invoked before the observer is connected.
+     *
+     * @param timer    the timer driving the heartbeat
+     * @param interval the heartbeat interval in milliseconds
+     */
+    void heartbeat(HashedWheelTimer timer, long interval) {
+        this.timer = timer;
+        this.heartbeatInterval = interval;
+    }
+
+    /**
+     * Enables the gzip compression, must be invoked before the observer is connected.
+     *
+     * @param level the compression level
+     */
+    void gzip(int level) {
+        this.compressionLevel = level;
+    }
+
+    /**
+     * Connects the observer with the response, the queued frames are written as soon as the connection is ready.
+     *
+     * @param responseStream the response stream
+     */
+    void connect(ResponseStream responseStream) {
+        responseStream.onTimeout(lifecycle.onTimeout(this));
+        responseStream.onCompletion(this);
+        this.responseStream = responseStream;
+        if (timer != null) {
+            scheduleHeartbeat(heartbeatInterval);
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(T value) {
+
+        if (done) {
+            return;
+        }
+        lifecycle.onItem();
+        try {
+            if (!queue.offer(value)) {
+                dispose();
+                onError(new IllegalStateException("The outbound queue of the connection overflowed"));
+                return;
+            }
+        } catch (Exception e) {
+            dispose();
+            onError(e);
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        terminate(e);
+    }
+
+    @Override
+    public void onComplete() {
+        terminate(null);
+    }
+
+    // the registry terminates the stream from another thread, the termination is carried out by the drain loop
+    private void terminate(Throwable e) {
+        if (terminated.compareAndSet(false, true)) {
+            error = e;
+            done = true;
+            drain();
+        }
+    }
+
+    @Override
+    public void run() {
+        lifecycle.onDispose();
+        cancel();
+        drain();
+    }
+
+    private void cancel() {
+        cancelled = true;
+        dispose();
+        final Disposable task = heartbeatTask;
+        if (task != null) {
+            task.dispose();
+        }
+    }
+
+    private void scheduleHeartbeat(long delay) {
+        final Disposable task = timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                heartbeat();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        heartbeatTask = task;
+        if (cancelled) {
+            task.dispose();
+        }
+    }
+
+    private void heartbeat() {
+        if (cancelled) {
+            return;
+        }
+        final long idle = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastWrite);
+        if (idle >= heartbeatInterval) {
+            heartbeatPending = true;
+            drain();
+            scheduleHeartbeat(heartbeatInterval);
+        } else {
+            scheduleHeartbeat(heartbeatInterval - idle);
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        for (;;) {
+            if (!cancelled) {
+                drainLoop();
+            }
+            if (cancelled) {
+                queue.clear();
+                releaseCompressor();
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    private void drainLoop() {
+
+        final ResponseStream stream = responseStream;
+        if (stream == null) {
+            return;
+        }
+        ServletOutputStream out = outputStream;
+        if (out == null) {
+            if (done && error != null) {
+                lifecycle.onError();
+                cancelled = true;
+                stream.completeWithError(error);
+                return;
+            }
+            if (queue.isEmpty() && !done && !heartbeatPending) {
+                return;
+            }
+            try {
+                if (compressionLevel != NO_COMPRESSION && stream.acceptsEncoding(GZIP)) {
+                    compressor = new GzipCompressor(compressionLevel);
+                    out = stream.open(TEXT_EVENT_STREAM, GZIP);
+                } else {
+                    out = stream.open(TEXT_EVENT_STREAM);
+                }
+                outputStream = out;
+                out.setWriteListener(writeListener);
+            } catch (IOException e) {
+                cancel();
+                stream.completeWithError(e);
+            }
+            return;
+        }
+
+        try {
+            while (out.isReady()) {
+                final boolean d = done;
+                if (d && error != null) {
+                    lifecycle.onError();
+                    cancel();
+                    stream.complete();
+                    return;
+                }
+                final Object event = queue.poll();
+                if (event == null) {
+                    if (d) {
+                        if (compressor != null) {
+                            out.write(compressor.finish());
+                        }
+                        lifecycle.onComplete();
+                        cancelled = true;
+                        stream.complete();
+                    } else if (heartbeatPending) {
+                        heartbeatPending = false;
+                        write(out, HEARTBEAT);
+                        lastWrite = System.nanoTime();
+                        flushed = false;
+                        continue;
+                    } else if (!flushed) {
+                        if (compressor != null && !compressor.isFlushed()) {
+                            // the compressed data is written first, the stream is flushed once it is ready again
+                            out.write(compressor.flush());
+                            continue;
+                        }
+                        flushed = true;
+                        out.flush();
+                    }
+                    return;
+                }
+                heartbeatPending = false;
+                write(out, encoder.encode(event));
+                lastWrite = System.nanoTime();
+                flushed = false;
+            }
+        } catch (IOException e) {
+            cancel();
+            stream.complete();
+        }
+    }
+
+    private void write(ServletOutputStream out, byte[] frame) throws IOException {
+        if (compressor == null) {
+            out.write(frame);
+            return;
+        }
+        final byte[] compressed = compressor.compress(frame);
+        if (compressed.length > 0) {
+            out.write(compressed);
+        }
+    }
+
+    private void releaseCompressor() {
+        if (compressor != null) {
+            compressor.end();
+            compressor = null;
+        }
+    }
+
+    @Override
+    public void abort(Throwable cause) {
+        dispose();
+        terminate(cause);
+    }
+
+    @Override
+    public boolean shutdown() {
+        dispose();
+        terminate(null);
+        return true;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+}
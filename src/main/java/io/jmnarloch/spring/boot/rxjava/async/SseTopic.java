@@ -0,0 +1,304 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.DisposableObserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An {@link Observable} that shares a single subscription of the source among all of its subscribers.
+ *
+ * The source is subscribed when the first subscriber arrives and disposed when the last one leaves. Every value is
+ * dispatched to the subscribers by the thread that produced it, so the subscribers are expected not to block, which
+ * is the case for the non-blocking {@link ObservableSseEmitter}s. Adding or removing a subscriber takes constant time
+ * regardless of the number of subscribers.
+ *
+ * A topic created with a replay size records the most recent {@link SseEvent}s carrying an id in a fixed size ring
+ * buffer, the values of any other type are never replayed. A client reconnecting with the {@code Last-Event-ID} header
+ * subscribes through {@link #resume(String)}, which the {@link ObservableSseEmitter} does on its own, and receives the
+ * events it has missed from memory, followed by the live values. The replayed and the live values are then dispatched
+ * under the topic lock, so that every subscriber receives them in order and without duplicates.
+ *
+ * When the last subscriber of such a topic leaves, the source remains subscribed for the grace period, so that the
+ * clients reconnecting at once, for instance after a network failure, resume the same stream. Once the source is
+ * disposed the recorded values are discarded, as a new subscription of the source starts a new stream whose values
+ * must not be mixed with the previous ones.
+ *
+ * @author Jakub Narloch
+ * @see SseTopicRegistry
+ */
+public class SseTopic<T> extends Observable<T> {
+
+    private final String name;
+
+    private final Observable<T> source;
+
+    private final Set<TopicSubscription<T>> subscribers =
+            Collections.newSetFromMap(new ConcurrentHashMap<TopicSubscription<T>, Boolean>());
+
+    private final Object lock = new Object();
+
+    private final SseReplayBuffer replay;
+
+    private final long gracePeriod;
+
+    private final Scheduler scheduler;
+
+    private int count;
+
+    private Dispatcher connection;
+
+    private Release release;
+
+    SseTopic(String name, Observable<T> source, int replaySize, long gracePeriod, Scheduler scheduler) {
+        this.name = name;
+        this.source = source;
+        this.replay = replaySize > 0 ? new SseReplayBuffer(replaySize) : null;
+        this.gracePeriod = gracePeriod;
+        this.scheduler = scheduler;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of subscribers.
+     *
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    /**
+     * Returns the topic that first replays the recorded events following the event with the given id. If the event is
+     * no longer recorded all of the recorded events are replayed.
+     *
+     * @param lastEventId the id of the last event received by the client, may be {@code null}
+     * @return the topic
+     */
+    public Observable<T> resume(final String lastEventId) {
+        if (lastEventId == null || replay == null) {
+            return this;
+        }
+        return new Observable<T>() {
+            @Override
+            protected void subscribeActual(Observer<? super T> observer) {
+                attach(observer, lastEventId);
+            }
+        };
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        attach(observer, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void attach(Observer<? super T> observer, String lastEventId) {
+
+        final TopicSubscription<T> subscription = new TopicSubscription<T>(this, observer);
+        observer.onSubscribe(subscription);
+        Dispatcher dispatcher = null;
+        synchronized (lock) {
+            if (lastEventId != null) {
+                for (Object event : replay.after(lastEventId)) {
+                    subscription.onNext((T) event);
+                }
+            }
+            subscribers.add(subscription);
+            if (count++ == 0) {
+                if (release != null) {
+                    release.cancel();
+                    release = null;
+                } else {
+                    dispatcher = new Dispatcher();
+                    connection = dispatcher;
+                }
+            }
+        }
+        if (dispatcher != null) {
+            source.subscribe(dispatcher);
+        }
+    }
+
+    private void remove(TopicSubscription<T> subscription) {
+        Dispatcher dispatcher = null;
+        synchronized (lock) {
+            if (!subscribers.remove(subscription)) {
+                return;
+            }
+            if (--count == 0) {
+                if (replay != null && gracePeriod > 0) {
+                    release = new Release();
+                    return;
+                }
+                dispatcher = disconnect();
+            }
+        }
+        if (dispatcher != null) {
+            dispatcher.dispose();
+        }
+    }
+
+    private Dispatcher disconnect() {
+        final Dispatcher dispatcher = connection;
+        connection = null;
+        if (replay != null) {
+            replay.clear();
+        }
+        return dispatcher;
+    }
+
+    private List<TopicSubscription<T>> terminate(Dispatcher dispatcher) {
+        synchronized (lock) {
+            if (connection != dispatcher) {
+                return Collections.emptyList();
+            }
+            final List<TopicSubscription<T>> terminated = new ArrayList<TopicSubscription<T>>(subscribers);
+            subscribers.clear();
+            count = 0;
+            disconnect();
+            if (release != null) {
+                release.cancel();
+                release = null;
+            }
+            return terminated;
+        }
+    }
+
+    private class Dispatcher extends DisposableObserver<T> {
+
+        @Override
+        public void onNext(T value) {
+            if (replay == null) {
+                dispatch(value);
+                return;
+            }
+            synchronized (lock) {
+                if (connection != this) {
+                    return;
+                }
+                replay.add(value);
+                dispatch(value);
+            }
+        }
+
+        private void dispatch(T value) {
+            for (TopicSubscription<T> subscriber : subscribers) {
+                subscriber.onNext(value);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            for (TopicSubscription<T> subscriber : terminate(this)) {
+                subscriber.onError(e);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            for (TopicSubscription<T> subscriber : terminate(this)) {
+                subscriber.onComplete();
+            }
+        }
+    }
+
+    private class Release implements Runnable {
+
+        private final Disposable task;
+
+        Release() {
+            this.task = scheduler.scheduleDirect(this, gracePeriod, TimeUnit.MILLISECONDS);
+        }
+
+        void cancel() {
+            task.dispose();
+        }
+
+        @Override
+        public void run() {
+            final Dispatcher dispatcher;
+            synchronized (lock) {
+                if (release != this) {
+                    return;
+                }
+                release = null;
+                dispatcher = disconnect();
+            }
+            dispatcher.dispose();
+        }
+    }
+
+    private static class TopicSubscription<T> implements Disposable {
+
+        private final SseTopic<T> topic;
+
+        private final Observer<? super T> observer;
+
+        private final AtomicBoolean disposed = new AtomicBoolean();
+
+        TopicSubscription(SseTopic<T> topic, Observer<? super T> observer) {
+            this.topic = topic;
+            this.observer = observer;
+        }
+
+        void onNext(T value) {
+            if (!disposed.get()) {
+                observer.onNext(value);
+            }
+        }
+
+        void onError(Throwable e) {
+            if (disposed.compareAndSet(false, true)) {
+                observer.onError(e);
+            }
+        }
+
+        void onComplete() {
+            if (disposed.compareAndSet(false, true)) {
+                observer.onComplete();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (disposed.compareAndSet(false, true)) {
+                topic.remove(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed.get();
+        }
+    }
+}
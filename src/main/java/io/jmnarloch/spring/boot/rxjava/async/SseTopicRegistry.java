@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A registry of the {@link SseTopic}s, that allows many {@link ObservableSseEmitter}s to share a single subscription
+ * of the same feed.
+ *
+ * Example:
+ *
+ * <pre>
+ * registry.register("quotes", quoteService.quotes());
+ * ...
+ * return new ObservableSseEmitter&lt;Quote&gt;(MediaType.APPLICATION_JSON, registry.&lt;Quote&gt;topic("quotes"),
+ *         new SseEmitterOptions().nonBlocking(256, OverflowPolicy.DROP_OLDEST));
+ * </pre>
+ *
+ * @author Jakub Narloch
+ * @see SseTopic
+ */
+public class SseTopicRegistry {
+
+    private static final long DEFAULT_GRACE_PERIOD = 30000L;
+
+    private final ConcurrentMap<String, SseTopic<?>> topics = new ConcurrentHashMap<String, SseTopic<?>>();
+
+    private final Scheduler dispatcher;
+
+    public SseTopicRegistry() {
+        this(null);
+    }
+
+    /**
+     * Creates new instance of {@link SseTopicRegistry}.
+     *
+     * @param dispatcher the scheduler on which the values are dispatched to the subscribers, by default the values
+     *                   are dispatched by the thread that produced them
+     */
+    public SseTopicRegistry(Scheduler dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Registers the topic, the source is subscribed only while the topic has any subscribers. Registering an already
+     * existing topic has no effect.
+     *
+     * @param name   the topic name
+     * @param source the source of the values
+     * @param <T>    the type of the values
+     * @return the topic
+     */
+    public <T> SseTopic<T> register(String name, Observable<T> source) {
+        return register(name, source, 0);
+    }
+
+    /**
+     * Registers the topic that records the given number of the most recent {@link SseEvent}s carrying an id, so that
+     * the reconnecting clients can resume the stream through {@link SseTopic#resume(String)}. The source remains subscribed for 30 seconds
+     * after the last subscriber leaves. Registering an already existing topic has no effect.
+     *
+     * @param name       the topic name
+     * @param source     the source of the values
+     * @param replaySize the number of the recorded {@link SseEvent}s
+     * @param <T>        the type of the values
+     * @return the topic
+     */
+    public <T> SseTopic<T> register(String name, Observable<T> source, int replaySize) {
+        return register(name, source, replaySize, DEFAULT_GRACE_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers the topic that records the given number of the most recent {@link SseEvent}s carrying an id, so that
+     * the reconnecting clients can resume the stream through {@link SseTopic#resume(String)}. Registering an already
+     * existing topic has no effect.
+     *
+     * @param name        the topic name
+     * @param source      the source of the values
+     * @param replaySize  the number of the recorded {@link SseEvent}s
+     * @param gracePeriod the period for which the source remains subscribed after the last subscriber leaves, the
+     *                    recorded values are discarded once it elapses
+     * @param unit        the grace period time unit
+     * @param <T>         the type of the values
+     * @return the topic
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SseTopic<T> register(String name, Observable<T> source, int replaySize, long gracePeriod,
+                                    TimeUnit unit) {
+        Assert.hasText(name, "name can not be empty");
+        Assert.notNull(source, "source can not be null");
+        Assert.isTrue(replaySize >= 0, "replaySize can not be negative");
+        Assert.isTrue(gracePeriod >= 0, "gracePeriod can not be negative");
+        Assert.notNull(unit, "unit can not be null");
+
+        final SseTopic<T> topic = new SseTopic<T>(name,
+                dispatcher != null ? source.observeOn(dispatcher) : source, replaySize,
+                unit.toMillis(gracePeriod), Schedulers.computation());
+        final SseTopic<?> existing = topics.putIfAbsent(name, topic);
+        return existing != null ? (SseTopic<T>) existing : topic;
+    }
+
+    /**
+     * Retrieves the registered topic.
+     *
+     * @param name the topic name
+     * @param <T>  the type of the values
+     * @return the topic
+     * @throws IllegalArgumentException if the topic has not been registered
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SseTopic<T> topic(String name) {
+        final SseTopic<?> topic = topics.get(name);
+        if (topic == null) {
+            throw new IllegalArgumentException("The topic " + name + " has not been registered");
+        }
+        return (SseTopic<T>) topic;
+    }
+
+    /**
+     * Removes the topic, the current subscribers remain subscribed until they leave.
+     *
+     * @param name the topic name
+     */
+    public void unregister(String name) {
+        topics.remove(name);
+    }
+}
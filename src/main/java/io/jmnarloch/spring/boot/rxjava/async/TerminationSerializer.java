@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serializes the values written into the response by the upstream with the termination of the response, which the
+ * {@link ReactiveRequestRegistry} may request from another thread.
+ *
+ * A value arriving while the response is being terminated is dropped, and a termination requested while a value is
+ * being written is carried out by the writing thread once it is done. Only the first termination is carried out.
+ *
+ * @author Jakub Narloch
+ * @see TrackedObserver
+ */
+final class TerminationSerializer {
+
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final AtomicReference<Runnable> termination = new AtomicReference<Runnable>();
+
+    /**
+     * Enters the writing of a value.
+     *
+     * @return whether the value can be written, in which case {@link #exit()} has to follow
+     */
+    boolean enter() {
+        return wip.get() == 0 && wip.compareAndSet(0, 1);
+    }
+
+    /**
+     * Exits the writing of a value, carrying out the termination requested in the meantime.
+     */
+    void exit() {
+        if (wip.decrementAndGet() != 0) {
+            termination.get().run();
+        }
+    }
+
+    /**
+     * Terminates the response, right away unless a value is being written.
+     *
+     * @param termination the termination
+     */
+    void terminate(Runnable termination) {
+        if (!this.termination.compareAndSet(null, termination)) {
+            return;
+        }
+        if (wip.getAndIncrement() == 0) {
+            termination.run();
+        }
+    }
+}
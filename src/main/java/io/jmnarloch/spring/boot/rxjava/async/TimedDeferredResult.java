@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.disposables.Disposable;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link DeferredResult} that expires through the {@link HashedWheelTimer} rather than relying only on the timeout
+ * sweep of the servlet container.
+ *
+ * Once the timeout elapses the registered timeout callback runs and the timeout result is set, exactly as if the
+ * container had timed out the request. The container timeout is kept as a fallback and whichever fires first wins.
+ * When no timeout result is given the expiry is left entirely to the container.
+ *
+ * @author Jakub Narloch
+ * @see HashedWheelTimer
+ */
+public class TimedDeferredResult<T> extends DeferredResult<T> {
+
+    private final Object timeoutResult;
+
+    private final Disposable timeout;
+
+    private volatile Runnable timeoutCallback;
+
+    public TimedDeferredResult(Long timeout, Object timeoutResult) {
+        this(timeout, timeoutResult, HashedWheelTimer.getDefault());
+    }
+
+    public TimedDeferredResult(Long timeout, Object timeoutResult, HashedWheelTimer timer) {
+        super(timeout, timeoutResult);
+        this.timeoutResult = timeoutResult;
+        if (timeout != null && timeout > 0 && timeoutResult != null) {
+            this.timeout = timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    expire();
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+        } else {
+            this.timeout = null;
+        }
+    }
+
+    @Override
+    public void onTimeout(Runnable callback) {
+        this.timeoutCallback = callback;
+        super.onTimeout(callback);
+    }
+
+    @Override
+    public void onCompletion(final Runnable callback) {
+        super.onCompletion(new Runnable() {
+            @Override
+            public void run() {
+                cancelTimeout();
+                callback.run();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expire() {
+        if (isSetOrExpired()) {
+            return;
+        }
+        final Runnable callback = timeoutCallback;
+        if (callback != null) {
+            callback.run();
+        }
+        setResult((T) timeoutResult);
+    }
+
+    private void cancelTimeout() {
+        if (timeout != null) {
+            timeout.dispose();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+/**
+ * An observer writing the result of a single reactive request, as seen by the {@link ReactiveRequestRegistry}.
+ *
+ * @author Jakub Narloch
+ * @see ReactiveRequestRegistry
+ */
+interface TrackedObserver {
+
+    /**
+     * Cancels the upstream subscription and terminates the response with the given error.
+     *
+     * @param cause the cause
+     */
+    void abort(Throwable cause);
+
+    /**
+     * Ends the response on shutdown. The streams cancel the upstream subscription and complete the response, so that
+     * the clients reconnect to another node, while the requests producing a single response are left to finish.
+     *
+     * @return whether the request has been ended
+     */
+    boolean shutdown();
+
+    /**
+     * Returns the number of the values pending to be written into the response.
+     *
+     * @return the queue depth
+     */
+    int getQueueDepth();
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.client;
+
+import io.reactivex.Completable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.SingleOnSubscribe;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.functions.Function;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.web.client.AsyncRestTemplate;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * An RxJava facade of the {@link AsyncRestTemplate}, which returns the responses as the reactive types.
+ *
+ * The request is sent only once the returned type is subscribed, and every subscription sends a new request. The
+ * response is signalled from the thread that completed the request, so with a non-blocking request factory fanning
+ * out to multiple services does not occupy any thread while waiting for the responses. Disposing the subscription
+ * cancels the request, which with a non-blocking request factory aborts the exchange and releases the connection.
+ *
+ * @author Jakub Narloch
+ */
+public class RxRestTemplate {
+
+    private final AsyncRestTemplate asyncRestTemplate;
+
+    public RxRestTemplate() {
+        this(new AsyncRestTemplate());
+    }
+
+    public RxRestTemplate(AsyncRestTemplate asyncRestTemplate) {
+        Assert.notNull(asyncRestTemplate, "asyncRestTemplate can not be null");
+        this.asyncRestTemplate = asyncRestTemplate;
+    }
+
+    public AsyncRestTemplate getAsyncRestTemplate() {
+        return asyncRestTemplate;
+    }
+
+    /**
+     * Retrieves the representation of the resource, the empty response body is signalled as the
+     * {@link NoSuchElementException}.
+     *
+     * @param url          the url
+     * @param responseType the response type
+     * @param uriVariables the url variables
+     * @param <T>          the response type
+     * @return the response body
+     */
+    public <T> Single<T> getForObject(String url, Class<T> responseType, Object... uriVariables) {
+        return body(getForEntity(url, responseType, uriVariables));
+    }
+
+    /**
+     * Retrieves the response entity of the resource.
+     *
+     * @param url          the url
+     * @param responseType the response type
+     * @param uriVariables the url variables
+     * @param <T>          the response type
+     * @return the response entity
+     */
+    public <T> Single<ResponseEntity<T>> getForEntity(final String url, final Class<T> responseType,
+                                                     final Object... uriVariables) {
+        return execute(new Request<ResponseEntity<T>>() {
+            @Override
+            public ListenableFuture<ResponseEntity<T>> send() {
+                return asyncRestTemplate.getForEntity(url, responseType, uriVariables);
+            }
+        });
+    }
+
+    /**
+     * Retrieves the representation of the resource that is a JSON array, emitting its elements one by one. The empty
+     * response body completes without any elements.
+     *
+     * @param url          the url
+     * @param elementType  the type of the array elements
+     * @param uriVariables the url variables
+     * @param <T>          the element type
+     * @return the array elements
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Observable<T> getForObservable(String url, Class<T> elementType, Object... uriVariables) {
+        final Class<T[]> arrayType = (Class<T[]>) Array.newInstance(elementType, 0).getClass();
+        return getForEntity(url, arrayType, uriVariables)
+                .flatMapObservable(new Function<ResponseEntity<T[]>, Observable<T>>() {
+                    @Override
+                    public Observable<T> apply(ResponseEntity<T[]> entity) {
+                        final T[] body = entity.getBody();
+                        return body != null ? Observable.fromIterable(Arrays.asList(body)) : Observable.<T>empty();
+                    }
+                });
+    }
+
+    /**
+     * Creates a new resource, the empty response body is signalled as the {@link NoSuchElementException}.
+     *
+     * @param url          the url
+     * @param request      the request body, may be {@code null}
+     * @param responseType the response type
+     * @param uriVariables the url variables
+     * @param <T>          the response type
+     * @return the response body
+     */
+    public <T> Single<T> postForObject(String url, Object request, Class<T> responseType, Object... uriVariables) {
+        return body(exchange(url, HttpMethod.POST, new HttpEntity<Object>(request), responseType, uriVariables));
+    }
+
+    /**
+     * Deletes the resource.
+     *
+     * @param url          the url
+     * @param uriVariables the url variables
+     * @return the completion of the request
+     */
+    public Completable delete(String url, Object... uriVariables) {
+        return exchange(url, HttpMethod.DELETE, null, Void.class, uriVariables).toCompletable();
+    }
+
+    /**
+     * Executes the request.
+     *
+     * @param url           the url
+     * @param method        the http method
+     * @param requestEntity the request entity, may be {@code null}
+     * @param responseType  the response type
+     * @param uriVariables  the url variables
+     * @param <T>           the response type
+     * @return the response entity
+     */
+    public <T> Single<ResponseEntity<T>> exchange(final String url, final HttpMethod method,
+                                                 final HttpEntity<?> requestEntity, final Class<T> responseType,
+                                                 final Object... uriVariables) {
+        return execute(new Request<ResponseEntity<T>>() {
+            @Override
+            public ListenableFuture<ResponseEntity<T>> send() {
+                return asyncRestTemplate.exchange(url, method, requestEntity, responseType, uriVariables);
+            }
+        });
+    }
+
+    /**
+     * Executes the request, with the generic response type.
+     *
+     * @param url           the url
+     * @param method        the http method
+     * @param requestEntity the request entity, may be {@code null}
+     * @param responseType  the response type
+     * @param uriVariables  the url variables
+     * @param <T>           the response type
+     * @return the response entity
+     */
+    public <T> Single<ResponseEntity<T>> exchange(final String url, final HttpMethod method,
+                                                 final HttpEntity<?> requestEntity,
+                                                 final ParameterizedTypeReference<T> responseType,
+                                                 final Object... uriVariables) {
+        return execute(new Request<ResponseEntity<T>>() {
+            @Override
+            public ListenableFuture<ResponseEntity<T>> send() {
+                return asyncRestTemplate.exchange(url, method, requestEntity, responseType, uriVariables);
+            }
+        });
+    }
+
+    private static <T> Single<T> body(Single<ResponseEntity<T>> entity) {
+        return entity.map(new Function<ResponseEntity<T>, T>() {
+            @Override
+            public T apply(ResponseEntity<T> entity) {
+                if (entity.getBody() == null) {
+                    throw new NoSuchElementException("The response body is empty");
+                }
+                return entity.getBody();
+            }
+        });
+    }
+
+    private static <T> Single<T> execute(final Request<T> request) {
+        return Single.create(new SingleOnSubscribe<T>() {
+            @Override
+            public void subscribe(final SingleEmitter<T> emitter) {
+                final ListenableFuture<T> future = request.send();
+                emitter.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() {
+                        future.cancel(true);
+                    }
+                });
+                future.addCallback(new ListenableFutureCallback<T>() {
+                    @Override
+                    public void onSuccess(T result) {
+                        if (result != null) {
+                            emitter.onSuccess(result);
+                        } else {
+                            emitter.onError(new NoSuchElementException("The request has not produced any result"));
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable e) {
+                        emitter.onError(e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e);
+                    }
+                });
+            }
+        });
+    }
+
+    private interface Request<T> {
+
+        ListenableFuture<T> send();
+    }
+}
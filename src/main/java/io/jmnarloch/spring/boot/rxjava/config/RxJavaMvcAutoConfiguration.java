@@ -15,23 +15,66 @@
  */
 package io.jmnarloch.spring.boot.rxjava.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jmnarloch.spring.boot.rxjava.async.FlushPolicy;
+import io.jmnarloch.spring.boot.rxjava.async.ReactiveRequestDrainer;
+import io.jmnarloch.spring.boot.rxjava.async.ReactiveRequestListenerFactory;
+import io.jmnarloch.spring.boot.rxjava.async.ReactiveRequestRegistry;
+import io.jmnarloch.spring.boot.rxjava.async.SseTopicRegistry;
+import io.jmnarloch.spring.boot.rxjava.client.RxRestTemplate;
+import io.jmnarloch.spring.boot.rxjava.context.RequestContextScheduleHandler;
+import io.jmnarloch.spring.boot.rxjava.endpoint.ReactiveRequestsEndpoint;
+import io.jmnarloch.spring.boot.rxjava.endpoint.ReactiveRequestsMvcEndpoint;
+import io.jmnarloch.spring.boot.rxjava.metrics.RxJavaMvcMetrics;
+import io.jmnarloch.spring.boot.rxjava.mvc.AbstractRxJavaReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.CompletableReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.FileRegionReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.FlowableReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.MaybeReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.ObservableSseEmitterReturnValueHandler;
 import io.jmnarloch.spring.boot.rxjava.mvc.ObservableReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.ReactiveRequestBodyArgumentResolver;
+import io.jmnarloch.spring.boot.rxjava.mvc.ReactiveRequestInterceptor;
 import io.jmnarloch.spring.boot.rxjava.mvc.SingleReturnValueHandler;
+import io.jmnarloch.spring.boot.rxjava.mvc.StreamingRequestPartArgumentResolver;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.HttpMessageConverters;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
-import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The RxJava Spring MVC integration auto configuration.
@@ -40,14 +83,30 @@ import java.util.List;
  */
 @Configuration
 @ConditionalOnProperty(value = "rxjava.mvc.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(RxJavaMvcProperties.class)
 public class RxJavaMvcAutoConfiguration {
 
+    @Autowired
+    private RxJavaMvcProperties properties;
+
+    @Autowired(required = false)
+    private ObjectMapper objectMapper;
+
+    @RxJava
+    @Autowired(required = false)
+    private Scheduler scheduler;
+
     @Bean
     @RxJava
     @ConditionalOnMissingBean
     @ConditionalOnClass(Observable.class)
     public ObservableReturnValueHandler observableReturnValueHandler() {
-        return new ObservableReturnValueHandler();
+        final RxJavaMvcProperties.Observable observable = properties.getObservable();
+        final ObservableReturnValueHandler handler = new ObservableReturnValueHandler(observable.getStreamingMode(), objectMapper);
+        handler.setFlushPolicy(observable.getFlushInterval() > 0
+                ? FlushPolicy.every(observable.getFlushItems(), observable.getFlushInterval(), TimeUnit.MILLISECONDS)
+                : FlushPolicy.everyItems(observable.getFlushItems()));
+        return configure(handler);
     }
 
     @Bean
@@ -55,7 +114,226 @@ public class RxJavaMvcAutoConfiguration {
     @ConditionalOnMissingBean
     @ConditionalOnClass(Single.class)
     public SingleReturnValueHandler singleReturnValueHandler() {
-        return new SingleReturnValueHandler();
+        return configure(new SingleReturnValueHandler());
+    }
+
+    @Bean
+    @RxJava
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(Single.class)
+    public FileRegionReturnValueHandler fileRegionReturnValueHandler() {
+        return configure(new FileRegionReturnValueHandler());
+    }
+
+    @Bean
+    @RxJava
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(Maybe.class)
+    public MaybeReturnValueHandler maybeReturnValueHandler() {
+        return configure(new MaybeReturnValueHandler());
+    }
+
+    @Bean
+    @RxJava
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(Completable.class)
+    public CompletableReturnValueHandler completableReturnValueHandler() {
+        return configure(new CompletableReturnValueHandler());
+    }
+
+    @Bean
+    @RxJava
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(Flowable.class)
+    public FlowableReturnValueHandler flowableReturnValueHandler() {
+        return configure(new FlowableReturnValueHandler(objectMapper, properties.getFlowable().getPrefetch()));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SseTopicRegistry sseTopicRegistry() {
+        return new SseTopicRegistry();
+    }
+
+    private <T extends AbstractRxJavaReturnValueHandler> T configure(T handler) {
+        handler.setScheduler(scheduler);
+        handler.setMaxItems(properties.getLimits().getMaxItems());
+        handler.setMaxBytes(properties.getLimits().getMaxBytes());
+        return handler;
+    }
+
+    @Configuration
+    @ConditionalOnProperty("rxjava.mvc.scheduler.type")
+    public static class RxJavaSchedulerConfiguration implements DisposableBean {
+
+        @Autowired
+        private RxJavaMvcProperties properties;
+
+        private ExecutorService executor;
+
+        // the shared schedulers must not be shut down together with the context
+        @Bean(destroyMethod = "")
+        @RxJava
+        @ConditionalOnMissingBean(name = "rxJavaMvcScheduler")
+        public Scheduler rxJavaMvcScheduler() {
+            final RxJavaMvcProperties.Scheduler scheduler = properties.getScheduler();
+            switch (scheduler.getType()) {
+                case IO:
+                    return Schedulers.io();
+                case COMPUTATION:
+                    return Schedulers.computation();
+                case NEW_THREAD:
+                    return Schedulers.newThread();
+                default:
+                    executor = Executors.newFixedThreadPool(scheduler.getPoolSize(),
+                            new CustomizableThreadFactory(scheduler.getThreadNamePrefix()));
+                    return Schedulers.from(executor);
+            }
+        }
+
+        @Override
+        public void destroy() {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty("rxjava.mvc.context-propagation.enabled")
+    public static class RxJavaContextPropagationConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public RequestContextScheduleHandler requestContextScheduleHandler() {
+            return new RequestContextScheduleHandler();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(PublicMetrics.class)
+    @ConditionalOnProperty(value = "rxjava.mvc.metrics.enabled", matchIfMissing = true)
+    public static class RxJavaMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public RxJavaMvcMetrics rxJavaMvcMetrics() {
+            return new RxJavaMvcMetrics();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(value = "rxjava.mvc.registry.enabled", matchIfMissing = true)
+    public static class RxJavaRegistryConfiguration {
+
+        @Autowired
+        private RxJavaMvcProperties properties;
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactiveRequestRegistry reactiveRequestRegistry() {
+            return new ReactiveRequestRegistry();
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(value = "rxjava.mvc.shutdown.enabled", matchIfMissing = true)
+        public ReactiveRequestDrainer reactiveRequestDrainer(ReactiveRequestRegistry registry) {
+            return new ReactiveRequestDrainer(registry, properties.getShutdown().getTimeout());
+        }
+
+        @Configuration
+        @ConditionalOnClass(Endpoint.class)
+        public static class RxJavaEndpointConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public ReactiveRequestsEndpoint reactiveRequestsEndpoint(ReactiveRequestRegistry registry) {
+                return new ReactiveRequestsEndpoint(registry);
+            }
+
+            @Bean
+            @ConditionalOnMissingBean
+            public ReactiveRequestsMvcEndpoint reactiveRequestsMvcEndpoint(ReactiveRequestsEndpoint endpoint) {
+                return new ReactiveRequestsMvcEndpoint(endpoint);
+            }
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(value = "rxjava.mvc.client.enabled", matchIfMissing = false)
+    public static class RxJavaClientConfiguration {
+
+        @Autowired(required = false)
+        private HttpMessageConverters messageConverters;
+
+        @Bean
+        @ConditionalOnMissingBean
+        public RxRestTemplate rxRestTemplate(@RxJava AsyncClientHttpRequestFactory requestFactory) {
+            final AsyncRestTemplate asyncRestTemplate = new AsyncRestTemplate(requestFactory);
+            if (messageConverters != null) {
+                asyncRestTemplate.setMessageConverters(messageConverters.getConverters());
+            }
+            return new RxRestTemplate(asyncRestTemplate);
+        }
+
+        @Configuration
+        @ConditionalOnClass(name = "org.apache.http.impl.nio.client.HttpAsyncClients")
+        public static class HttpComponentsRequestFactoryConfiguration {
+
+            @Autowired
+            private RxJavaMvcProperties properties;
+
+            @Bean
+            @RxJava
+            public AsyncClientHttpRequestFactory rxRestTemplateRequestFactory() {
+                final RxJavaMvcProperties.Client client = properties.getClient();
+                // the optional HttpAsyncClient is referenced only from this class, loaded once it is known to be present
+                return new HttpComponentsAsyncClientHttpRequestFactory(
+                        org.apache.http.impl.nio.client.HttpAsyncClients.custom()
+                                .setMaxConnTotal(client.getMaxConnections())
+                                .setMaxConnPerRoute(client.getMaxConnectionsPerRoute())
+                                .setDefaultRequestConfig(org.apache.http.client.config.RequestConfig.custom()
+                                        .setConnectTimeout(client.getConnectTimeout())
+                                        .setSocketTimeout(client.getReadTimeout())
+                                        .build())
+                                .build());
+            }
+        }
+
+        @Configuration
+        @ConditionalOnMissingClass("org.apache.http.impl.nio.client.HttpAsyncClients")
+        public static class SimpleRequestFactoryConfiguration implements DisposableBean {
+
+            @Autowired
+            private RxJavaMvcProperties properties;
+
+            private ThreadPoolTaskExecutor executor;
+
+            @Bean
+            @RxJava
+            public AsyncClientHttpRequestFactory rxRestTemplateRequestFactory() {
+                // the executor is owned by the request factory, so that it is not picked up as the task executor of
+                // the application
+                executor = new ThreadPoolTaskExecutor();
+                executor.setCorePoolSize(properties.getClient().getMaxConnections());
+                executor.setThreadNamePrefix("rxjava-client-");
+                executor.initialize();
+
+                final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+                requestFactory.setConnectTimeout(properties.getClient().getConnectTimeout());
+                requestFactory.setReadTimeout(properties.getClient().getReadTimeout());
+                requestFactory.setTaskExecutor(executor);
+                return requestFactory;
+            }
+
+            @Override
+            public void destroy() {
+                if (executor != null) {
+                    executor.shutdown();
+                }
+            }
+        }
     }
 
     @Configuration
@@ -65,13 +343,85 @@ public class RxJavaMvcAutoConfiguration {
         @Autowired
         private List<AsyncHandlerMethodReturnValueHandler> handlers = new ArrayList<AsyncHandlerMethodReturnValueHandler>();
 
+        @Autowired(required = false)
+        private ReactiveRequestListenerFactory listenerFactory;
+
+        @Autowired(required = false)
+        private ReactiveRequestRegistry registry;
+
+        @Autowired
+        private ListableBeanFactory beanFactory;
+
+        @Autowired(required = false)
+        private ObjectMapper objectMapper;
+
+        @RxJava
+        @Autowired(required = false)
+        private Scheduler scheduler;
+
+        @Autowired
+        private RxJavaMvcProperties properties;
+
         @Bean
         public WebMvcConfigurer rxJavaWebMvcConfiguration() {
             return new WebMvcConfigurerAdapter() {
                 @Override
-                public void addReturnValueHandlers(List<HandlerMethodReturnValueHandler> returnValueHandlers) {
-                    if (handlers != null) {
-                        returnValueHandlers.addAll(handlers);
+                public void addInterceptors(InterceptorRegistry interceptors) {
+                    if (listenerFactory != null || registry != null) {
+                        interceptors.addInterceptor(new ReactiveRequestInterceptor(listenerFactory, registry));
+                    }
+                }
+            };
+        }
+
+        @Bean
+        public SmartInitializingSingleton rxJavaReturnValueHandlerRegistrar() {
+            return new SmartInitializingSingleton() {
+                @Override
+                public void afterSingletonsInstantiated() {
+                    for (RequestMappingHandlerAdapter adapter :
+                            beanFactory.getBeansOfType(RequestMappingHandlerAdapter.class).values()) {
+                        AbstractRxJavaReturnValueHandler.register(adapter, handlers);
+                    }
+                }
+            };
+        }
+
+        @Bean
+        public SmartInitializingSingleton reactiveRequestBodyArgumentResolverRegistrar() {
+            return new SmartInitializingSingleton() {
+                @Override
+                public void afterSingletonsInstantiated() {
+                    for (RequestMappingHandlerAdapter adapter :
+                            beanFactory.getBeansOfType(RequestMappingHandlerAdapter.class).values()) {
+                        ReactiveRequestBodyArgumentResolver.register(adapter, objectMapper);
+                    }
+                }
+            };
+        }
+
+        @Bean
+        public SmartInitializingSingleton streamingRequestPartArgumentResolverRegistrar() {
+            return new SmartInitializingSingleton() {
+                @Override
+                public void afterSingletonsInstantiated() {
+                    for (RequestMappingHandlerAdapter adapter :
+                            beanFactory.getBeansOfType(RequestMappingHandlerAdapter.class).values()) {
+                        StreamingRequestPartArgumentResolver.register(adapter,
+                                properties.getMultipart().getChunkSize());
+                    }
+                }
+            };
+        }
+
+        @Bean
+        public SmartInitializingSingleton observableSseEmitterReturnValueHandlerRegistrar() {
+            return new SmartInitializingSingleton() {
+                @Override
+                public void afterSingletonsInstantiated() {
+                    for (RequestMappingHandlerAdapter adapter :
+                            beanFactory.getBeansOfType(RequestMappingHandlerAdapter.class).values()) {
+                        ObservableSseEmitterReturnValueHandler.register(adapter, scheduler, objectMapper);
                     }
                 }
             };
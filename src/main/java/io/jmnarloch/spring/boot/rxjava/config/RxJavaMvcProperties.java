@@ -0,0 +1,417 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.config;
+
+import io.jmnarloch.spring.boot.rxjava.mvc.StreamingMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The RxJava Spring MVC integration configuration properties.
+ *
+ * @author Jakub Narloch
+ */
+@ConfigurationProperties("rxjava.mvc")
+public class RxJavaMvcProperties {
+
+    /**
+     * Whether to enable the RxJava Spring MVC integration.
+     */
+    private boolean enabled = true;
+
+    private final Observable observable = new Observable();
+
+    private final Flowable flowable = new Flowable();
+
+    private final Multipart multipart = new Multipart();
+
+    private final Client client = new Client();
+
+    private final Metrics metrics = new Metrics();
+
+    private final Registry registry = new Registry();
+
+    private final Shutdown shutdown = new Shutdown();
+
+    private final Scheduler scheduler = new Scheduler();
+
+    private final Limits limits = new Limits();
+
+    private final ContextPropagation contextPropagation = new ContextPropagation();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Observable getObservable() {
+        return observable;
+    }
+
+    public Flowable getFlowable() {
+        return flowable;
+    }
+
+    public Multipart getMultipart() {
+        return multipart;
+    }
+
+    public Client getClient() {
+        return client;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Registry getRegistry() {
+        return registry;
+    }
+
+    public Shutdown getShutdown() {
+        return shutdown;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public Limits getLimits() {
+        return limits;
+    }
+
+    public ContextPropagation getContextPropagation() {
+        return contextPropagation;
+    }
+
+    public static class Observable {
+
+        /**
+         * How the values produced by the Observable are written into the response.
+         */
+        private StreamingMode streamingMode = StreamingMode.NONE;
+
+        /**
+         * The number of values after which the NDJSON stream is flushed.
+         */
+        private int flushItems = 1;
+
+        /**
+         * The interval in milliseconds in which the NDJSON stream is flushed, disabled by default.
+         */
+        private long flushInterval = 0;
+
+        public StreamingMode getStreamingMode() {
+            return streamingMode;
+        }
+
+        public void setStreamingMode(StreamingMode streamingMode) {
+            this.streamingMode = streamingMode;
+        }
+
+        public int getFlushItems() {
+            return flushItems;
+        }
+
+        public void setFlushItems(int flushItems) {
+            this.flushItems = flushItems;
+        }
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    public static class Flowable {
+
+        /**
+         * The number of values requested from the Flowable ahead of writing them into the response.
+         */
+        private int prefetch = 16;
+
+        public int getPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(int prefetch) {
+            this.prefetch = prefetch;
+        }
+    }
+
+    public static class Multipart {
+
+        /**
+         * The size in bytes of the chunks the streamed request parts are read in.
+         */
+        private int chunkSize = 8192;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Client {
+
+        /**
+         * Whether to configure the RxRestTemplate.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The max number of the pooled connections, or the max number of the request threads without the Apache
+         * HttpAsyncClient.
+         */
+        private int maxConnections = 200;
+
+        /**
+         * The max number of the pooled connections per route, requires the Apache HttpAsyncClient.
+         */
+        private int maxConnectionsPerRoute = 50;
+
+        /**
+         * The connect timeout in milliseconds, the default of the request factory if negative.
+         */
+        private int connectTimeout = -1;
+
+        /**
+         * The read timeout in milliseconds, the default of the request factory if negative.
+         */
+        private int readTimeout = -1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public int getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
+
+    public static class Metrics {
+
+        /**
+         * Whether to collect the metrics of the reactive requests, requires Spring Boot Actuator.
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Registry {
+
+        /**
+         * Whether to track the reactive requests in flight and expose them through the actuator rxjava endpoint.
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Shutdown {
+
+        /**
+         * Whether to drain the reactive requests in flight when the application is shut down, requires the registry.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The time in milliseconds the pending requests are given to finish on shutdown.
+         */
+        private long timeout = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Scheduler {
+
+        /**
+         * The scheduler on which the returned values are subscribed, by default they are subscribed on the request
+         * thread.
+         */
+        private SchedulerType type;
+
+        /**
+         * The number of threads of the EXECUTOR scheduler.
+         */
+        private int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+
+        /**
+         * The name prefix of the threads of the EXECUTOR scheduler.
+         */
+        private String threadNamePrefix = "rxjava-mvc-";
+
+        public SchedulerType getType() {
+            return type;
+        }
+
+        public void setType(SchedulerType type) {
+            this.type = type;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public String getThreadNamePrefix() {
+            return threadNamePrefix;
+        }
+
+        public void setThreadNamePrefix(String threadNamePrefix) {
+            this.threadNamePrefix = threadNamePrefix;
+        }
+    }
+
+    public static class Limits {
+
+        /**
+         * The max number of items an Observable or Flowable is allowed to produce, unlimited if negative.
+         */
+        private long maxItems = -1;
+
+        /**
+         * The max size in bytes of the serialized items an Observable or Flowable is allowed to produce,
+         * unlimited if negative.
+         */
+        private long maxBytes = -1;
+
+        public long getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(long maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    public static class ContextPropagation {
+
+        /**
+         * Whether to propagate the request, locale and logging context to the tasks run by the RxJava schedulers.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public enum SchedulerType {
+
+        /**
+         * The shared {@code Schedulers.io()} scheduler, suited for blocking sources.
+         */
+        IO,
+
+        /**
+         * The shared {@code Schedulers.computation()} scheduler.
+         */
+        COMPUTATION,
+
+        /**
+         * The {@code Schedulers.newThread()} scheduler.
+         */
+        NEW_THREAD,
+
+        /**
+         * A dedicated fixed size thread pool, owned by the application context.
+         */
+        EXECUTOR
+    }
+}
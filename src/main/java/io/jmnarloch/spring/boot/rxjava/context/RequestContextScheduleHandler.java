@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.context;
+
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+
+/**
+ * An RxJava schedule handler that propagates the {@link RequestContextHolder}, {@link LocaleContextHolder} and the
+ * logging {@link MDC} of the scheduling thread to the thread that runs the task.
+ *
+ * The context is captured only once per scheduled task, when the task is handed to the
+ * {@link io.reactivex.Scheduler}, rather than for every operator of the sequence. Tasks scheduled outside of any
+ * context are not wrapped at all. Any schedule handler installed before is preserved and invoked first.
+ *
+ * @author Jakub Narloch
+ */
+public class RequestContextScheduleHandler implements Function<Runnable, Runnable>, InitializingBean, DisposableBean {
+
+    private Function<Runnable, Runnable> previous;
+
+    @Override
+    public void afterPropertiesSet() {
+        previous = RxJavaPlugins.getScheduleHandler();
+        RxJavaPlugins.setScheduleHandler(this);
+    }
+
+    @Override
+    public void destroy() {
+        if (RxJavaPlugins.getScheduleHandler() == this) {
+            RxJavaPlugins.setScheduleHandler(previous);
+        }
+    }
+
+    @Override
+    public Runnable apply(Runnable task) throws Exception {
+        final Runnable runnable = previous != null ? previous.apply(task) : task;
+        final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        final LocaleContext localeContext = LocaleContextHolder.getLocaleContext();
+        final Map<String, String> mdc = MDC.getCopyOfContextMap();
+        if (requestAttributes == null && localeContext == null && (mdc == null || mdc.isEmpty())) {
+            return runnable;
+        }
+        return new ContextRunnable(runnable, requestAttributes, localeContext, mdc);
+    }
+
+    private static class ContextRunnable implements Runnable {
+
+        private final Runnable delegate;
+
+        private final RequestAttributes requestAttributes;
+
+        private final LocaleContext localeContext;
+
+        private final Map<String, String> mdc;
+
+        ContextRunnable(Runnable delegate, RequestAttributes requestAttributes, LocaleContext localeContext,
+                        Map<String, String> mdc) {
+            this.delegate = delegate;
+            this.requestAttributes = requestAttributes;
+            this.localeContext = localeContext;
+            this.mdc = mdc;
+        }
+
+        @Override
+        public void run() {
+            final RequestAttributes previousAttributes = RequestContextHolder.getRequestAttributes();
+            final LocaleContext previousLocale = LocaleContextHolder.getLocaleContext();
+            final Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            LocaleContextHolder.setLocaleContext(localeContext);
+            setMdc(mdc);
+            try {
+                delegate.run();
+            } finally {
+                RequestContextHolder.setRequestAttributes(previousAttributes);
+                LocaleContextHolder.setLocaleContext(previousLocale);
+                setMdc(previousMdc);
+            }
+        }
+
+        private static void setMdc(Map<String, String> context) {
+            if (context != null) {
+                MDC.setContextMap(context);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.endpoint;
+
+import io.jmnarloch.spring.boot.rxjava.async.ReactiveRequestRegistry;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.util.Assert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes the reactive requests in flight through the actuator {@code /rxjava} endpoint: the total number of the
+ * requests, the number of the requests per handler method and for every request its age, handler method, number of
+ * the items sent and the depth of its outbound queue.
+ *
+ * @author Jakub Narloch
+ * @see ReactiveRequestRegistry
+ */
+public class ReactiveRequestsEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final ReactiveRequestRegistry registry;
+
+    public ReactiveRequestsEndpoint(ReactiveRequestRegistry registry) {
+        super("rxjava");
+        Assert.notNull(registry, "registry can not be null");
+        this.registry = registry;
+    }
+
+    public ReactiveRequestRegistry getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+        final Map<String, Object> result = new LinkedHashMap<String, Object>();
+        result.put("count", registry.getCount());
+        result.put("handlers", registry.getCountByHandler());
+        result.put("requests", registry.getActiveRequests());
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.endpoint;
+
+import org.springframework.boot.actuate.endpoint.mvc.EndpointMvcAdapter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Collections;
+
+/**
+ * Exposes the {@link ReactiveRequestsEndpoint} over HTTP, adding the operations disposing the requests:
+ *
+ * <ul>
+ * <li>{@code DELETE /rxjava/{id}} - disposes a single request</li>
+ * <li>{@code DELETE /rxjava/handlers/{handler}} - disposes all of the requests of the handler method</li>
+ * </ul>
+ *
+ * @author Jakub Narloch
+ */
+public class ReactiveRequestsMvcEndpoint extends EndpointMvcAdapter {
+
+    private final ReactiveRequestsEndpoint delegate;
+
+    public ReactiveRequestsMvcEndpoint(ReactiveRequestsEndpoint delegate) {
+        super(delegate);
+        this.delegate = delegate;
+    }
+
+    @ResponseBody
+    @RequestMapping(value = "/{id:\\d+}", method = RequestMethod.DELETE)
+    public Object dispose(@PathVariable long id) {
+        if (!delegate.isEnabled()) {
+            return DISABLED_RESPONSE;
+        }
+        if (!delegate.getRegistry().dispose(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return Collections.singletonMap("disposed", 1);
+    }
+
+    @ResponseBody
+    @RequestMapping(value = "/handlers/{handler:.*}", method = RequestMethod.DELETE)
+    public Object dispose(@PathVariable String handler) {
+        if (!delegate.isEnabled()) {
+            return DISABLED_RESPONSE;
+        }
+        return Collections.singletonMap("disposed", delegate.getRegistry().dispose(handler));
+    }
+}
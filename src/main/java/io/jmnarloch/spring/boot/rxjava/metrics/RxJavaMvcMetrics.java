@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.metrics;
+
+import io.jmnarloch.spring.boot.rxjava.async.ReactiveRequestListener;
+import io.jmnarloch.spring.boot.rxjava.async.ReactiveRequestListenerFactory;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the metrics of the reactive requests per handler method and exposes them through the actuator
+ * {@code /metrics} endpoint. For every handler method that returned a reactive type following metrics are published:
+ *
+ * <ul>
+ * <li>{@code counter.rxjava.mvc.<handler>.requests} - the number of subscriptions</li>
+ * <li>{@code counter.rxjava.mvc.<handler>.items} - the number of emitted items</li>
+ * <li>{@code counter.rxjava.mvc.<handler>.completions} - the number of successful completions</li>
+ * <li>{@code counter.rxjava.mvc.<handler>.errors} - the number of errors</li>
+ * <li>{@code counter.rxjava.mvc.<handler>.timeouts} - the number of timeouts</li>
+ * <li>{@code counter.rxjava.mvc.<handler>.disposals} - the number of subscriptions disposed before termination</li>
+ * <li>{@code gauge.rxjava.mvc.<handler>.first-item.last} and {@code .first-item.mean} - the time from subscription
+ * to the first item, in milliseconds</li>
+ * <li>{@code gauge.rxjava.mvc.<handler>.completion.last} and {@code .completion.mean} - the time from subscription
+ * to the termination, in milliseconds</li>
+ * </ul>
+ *
+ * The handler is named by the fully qualified name of the controller type followed by the method signature, so that
+ * the overloaded methods and the equally named controllers do not share their metrics. Every subscription is counted
+ * by exactly one of the completions, errors, timeouts and disposals once it terminates, together with its items and
+ * the time to the termination.
+ *
+ * @author Jakub Narloch
+ */
+public class RxJavaMvcMetrics implements ReactiveRequestListenerFactory, PublicMetrics {
+
+    private static final String PREFIX = "rxjava.mvc.";
+
+    private final ConcurrentMap<String, HandlerMetrics> metrics = new ConcurrentHashMap<String, HandlerMetrics>();
+
+    @Override
+    public ReactiveRequestListener getListener(HandlerMethod handlerMethod) {
+        final String name = getName(handlerMethod);
+        HandlerMetrics handlerMetrics = metrics.get(name);
+        if (handlerMetrics == null) {
+            handlerMetrics = new HandlerMetrics();
+            final HandlerMetrics existing = metrics.putIfAbsent(name, handlerMetrics);
+            if (existing != null) {
+                handlerMetrics = existing;
+            }
+        }
+        return handlerMetrics;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final Collection<Metric<?>> result = new ArrayList<Metric<?>>();
+        for (String handler : metrics.keySet()) {
+            metrics.get(handler).collect(PREFIX + handler + ".", result);
+        }
+        return result;
+    }
+
+    private static String getName(HandlerMethod handlerMethod) {
+        final StringBuilder name = new StringBuilder(handlerMethod.getBeanType().getName())
+                .append('.').append(handlerMethod.getMethod().getName()).append('(');
+        final Class<?>[] parameterTypes = handlerMethod.getMethod().getParameterTypes();
+        for (int index = 0; index < parameterTypes.length; index++) {
+            if (index > 0) {
+                name.append(',');
+            }
+            name.append(parameterTypes[index].getSimpleName());
+        }
+        return name.append(')').toString();
+    }
+
+    private static class HandlerMetrics implements ReactiveRequestListener {
+
+        private final AtomicLong requests = new AtomicLong();
+
+        private final AtomicLong items = new AtomicLong();
+
+        private final AtomicLong completions = new AtomicLong();
+
+        private final AtomicLong errors = new AtomicLong();
+
+        private final AtomicLong timeouts = new AtomicLong();
+
+        private final AtomicLong disposals = new AtomicLong();
+
+        private final Timer firstItem = new Timer();
+
+        private final Timer completion = new Timer();
+
+        @Override
+        public void onSubscribe() {
+            requests.incrementAndGet();
+        }
+
+        @Override
+        public void onFirstItem(long latency) {
+            firstItem.record(latency);
+        }
+
+        @Override
+        public void onComplete(long latency, long items) {
+            terminate(latency, items);
+            completions.incrementAndGet();
+        }
+
+        @Override
+        public void onError(long latency, long items) {
+            terminate(latency, items);
+            errors.incrementAndGet();
+        }
+
+        @Override
+        public void onTimeout(long latency, long items) {
+            terminate(latency, items);
+            timeouts.incrementAndGet();
+        }
+
+        @Override
+        public void onDispose(long latency, long items) {
+            terminate(latency, items);
+            disposals.incrementAndGet();
+        }
+
+        private void terminate(long latency, long items) {
+            this.items.addAndGet(items);
+            completion.record(latency);
+        }
+
+        void collect(String prefix, Collection<Metric<?>> result) {
+            if (requests.get() == 0) {
+                return;
+            }
+            result.add(new Metric<Long>("counter." + prefix + "requests", requests.get()));
+            result.add(new Metric<Long>("counter." + prefix + "items", items.get()));
+            result.add(new Metric<Long>("counter." + prefix + "completions", completions.get()));
+            result.add(new Metric<Long>("counter." + prefix + "errors", errors.get()));
+            result.add(new Metric<Long>("counter." + prefix + "timeouts", timeouts.get()));
+            result.add(new Metric<Long>("counter." + prefix + "disposals", disposals.get()));
+            firstItem.collect("gauge." + prefix + "first-item", result);
+            completion.collect("gauge." + prefix + "completion", result);
+        }
+    }
+
+    private static class Timer {
+
+        private static final double NANOS_PER_MILLI = 1000000.0;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong total = new AtomicLong();
+
+        private volatile long last;
+
+        void record(long latency) {
+            count.incrementAndGet();
+            total.addAndGet(latency);
+            last = latency;
+        }
+
+        void collect(String name, Collection<Metric<?>> result) {
+            final long count = this.count.get();
+            if (count == 0) {
+                return;
+            }
+            result.add(new Metric<Double>(name + ".last", last / NANOS_PER_MILLI));
+            result.add(new Metric<Double>(name + ".mean", total.get() / NANOS_PER_MILLI / count));
+        }
+    }
+}
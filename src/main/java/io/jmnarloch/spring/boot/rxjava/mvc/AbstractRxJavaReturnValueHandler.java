@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.Scheduler;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.CallableMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A base class for the {@link AsyncHandlerMethodReturnValueHandler}s of the RxJava types.
+ *
+ * The {@link RxEndpoint} and {@link SingleFlight} annotations of every handler method are resolved only on the first
+ * request and cached afterwards, so that no reflection is involved in handling the subsequent requests.
+ *
+ * Several of the RxJava types, like the ones created through {@code fromCallable} or {@code just}, implement
+ * {@link java.util.concurrent.Callable}, which makes the {@link CallableMethodReturnValueHandler} claim them. The
+ * handlers therefore need to precede it, which is what {@link #register(RequestMappingHandlerAdapter, List)} takes
+ * care of.
+ *
+ * @author Jakub Narloch
+ */
+public abstract class AbstractRxJavaReturnValueHandler implements AsyncHandlerMethodReturnValueHandler, BeanFactoryAware {
+
+    private static final Log logger = LogFactory.getLog(AbstractRxJavaReturnValueHandler.class);
+
+    private final ConcurrentMap<Method, EndpointPolicy> policies = new ConcurrentHashMap<Method, EndpointPolicy>();
+
+    private BeanFactory beanFactory;
+
+    private Scheduler scheduler;
+
+    private long maxItems = -1;
+
+    private long maxBytes = -1;
+
+    @Override
+    public boolean isAsyncReturnValue(Object returnValue, MethodParameter returnType) {
+        return returnValue != null && supportsReturnType(returnType);
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Sets the {@link Scheduler} on which the returned values are subscribed. This way even a blocking source does
+     * not run on the container thread, which is released as soon as the handler returns. By default the values are
+     * subscribed on the request thread.
+     *
+     * @param scheduler the scheduler
+     */
+    public void setScheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Sets the max number of items the returned multi valued types are allowed to produce, unlimited by default.
+     *
+     * @param maxItems the max number of items, or a negative number for no limit
+     */
+    public void setMaxItems(long maxItems) {
+        this.maxItems = maxItems;
+    }
+
+    public long getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Sets the max size in bytes of the serialized items that the returned multi valued types are allowed to produce,
+     * unlimited by default. The items are serialized into JSON as soon as they are emitted and their UTF-8 encoded
+     * size is counted, the handlers writing the JSON themselves then write the items in that form.
+     *
+     * @param maxBytes the max number of bytes, or a negative number for no limit
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the {@link ObjectMapper} used for serializing the items of the size limited responses, the handlers
+     * that return {@code null} do not support the size limit.
+     *
+     * @return the object mapper
+     */
+    protected ObjectMapper getObjectMapper() {
+        return null;
+    }
+
+    /**
+     * Retrieves the policy of the handler method.
+     *
+     * @param returnType the handler method return type
+     * @return the endpoint policy
+     */
+    EndpointPolicy getPolicy(MethodParameter returnType) {
+        final Method method = returnType.getMethod();
+        final EndpointPolicy policy = policies.get(method);
+        if (policy != null) {
+            return policy;
+        }
+        final EndpointPolicy resolved = resolvePolicy(returnType);
+        final EndpointPolicy existing = policies.putIfAbsent(method, resolved);
+        return existing != null ? existing : resolved;
+    }
+
+    private EndpointPolicy resolvePolicy(MethodParameter returnType) {
+        final SingleFlightGroup singleFlight = resolveSingleFlight(returnType);
+        RxEndpoint endpoint = returnType.getMethodAnnotation(RxEndpoint.class);
+        if (endpoint == null) {
+            endpoint = AnnotationUtils.findAnnotation(returnType.getContainingClass(), RxEndpoint.class);
+        }
+        if (endpoint == null) {
+            return new EndpointPolicy(null, scheduler, maxItems, maxBytes, getObjectMapper(), null, singleFlight);
+        }
+        return new EndpointPolicy(
+                endpoint.timeout() >= 0 ? endpoint.timeout() : null,
+                resolveScheduler(endpoint.scheduler()),
+                endpoint.maxItems() >= 0 ? endpoint.maxItems() : maxItems,
+                endpoint.maxBytes() >= 0 ? endpoint.maxBytes() : maxBytes,
+                getObjectMapper(),
+                endpoint.streamingMode().length > 0 ? endpoint.streamingMode()[0] : null,
+                singleFlight
+        );
+    }
+
+    private SingleFlightGroup resolveSingleFlight(MethodParameter returnType) {
+        if (returnType.getMethodAnnotation(SingleFlight.class) == null) {
+            return null;
+        }
+        final SingleFlightGroup group = SingleFlightGroup.of(returnType.getMethod());
+        if (group == null) {
+            logger.warn("The requests to " + returnType.getMethod() + " are not coalesced, as the method binds "
+                    + "arguments from the parts of the request that can not be used for telling them apart");
+        }
+        return group;
+    }
+
+    private Scheduler resolveScheduler(String name) {
+        if (!StringUtils.hasText(name)) {
+            return scheduler;
+        }
+        if (beanFactory == null) {
+            throw new IllegalStateException("The scheduler " + name + " can not be resolved without a bean factory");
+        }
+        return beanFactory.getBean(name, Scheduler.class);
+    }
+
+    /**
+     * Registers the handlers in front of the {@link CallableMethodReturnValueHandler} of the adapter, or at the end
+     * of the handlers in case the adapter has none.
+     *
+     * @param adapter  the handler adapter
+     * @param handlers the handlers
+     */
+    public static void register(RequestMappingHandlerAdapter adapter,
+                                List<? extends HandlerMethodReturnValueHandler> handlers) {
+        final List<HandlerMethodReturnValueHandler> returnValueHandlers =
+                new ArrayList<HandlerMethodReturnValueHandler>(adapter.getReturnValueHandlers());
+        returnValueHandlers.removeAll(handlers);
+        int index = returnValueHandlers.size();
+        for (int i = 0; i < returnValueHandlers.size(); i++) {
+            if (returnValueHandlers.get(i) instanceof CallableMethodReturnValueHandler) {
+                index = i;
+                break;
+            }
+        }
+        returnValueHandlers.addAll(index, handlers);
+        adapter.setReturnValueHandlers(returnValueHandlers);
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.jmnarloch.spring.boot.rxjava.async.CompletableDeferredResult;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import io.reactivex.Completable;
+
+/**
+ * A specialized {@link AsyncHandlerMethodReturnValueHandler} that handles {@link Completable} return types.
+ *
+ * @author Jakub Narloch
+ * @see CompletableDeferredResult
+ */
+public class CompletableReturnValueHandler extends AbstractRxJavaReturnValueHandler {
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return Completable.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+
+        if (returnValue == null) {
+            mavContainer.setRequestHandled(true);
+            return;
+        }
+
+        final EndpointPolicy policy = getPolicy(returnType);
+        final Completable completable = policy.apply(Completable.class.cast(returnValue));
+        final CompletableDeferredResult deferredResult = policy.getTimeout() != null
+                ? new CompletableDeferredResult(policy.getTimeout(), completable, webRequest)
+                : new CompletableDeferredResult(completable, webRequest);
+        WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(deferredResult, mavContainer);
+    }
+}
@@ -0,0 +1,346 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import org.reactivestreams.Publisher;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+
+/**
+ * The resolved handling policy of a single handler method.
+ *
+ * @author Jakub Narloch
+ * @see RxEndpoint
+ * @see SingleFlight
+ */
+final class EndpointPolicy {
+
+    private final Long timeout;
+
+    private final Scheduler scheduler;
+
+    private final long maxItems;
+
+    private final long maxBytes;
+
+    private final ObjectWriter objectWriter;
+
+    private final StreamingMode streamingMode;
+
+    private final SingleFlightGroup singleFlights;
+
+    EndpointPolicy(Long timeout, Scheduler scheduler, long maxItems, long maxBytes, ObjectMapper objectMapper,
+                   StreamingMode streamingMode, SingleFlightGroup singleFlights) {
+        this.timeout = timeout;
+        this.scheduler = scheduler;
+        this.maxItems = maxItems;
+        this.maxBytes = objectMapper != null ? maxBytes : -1;
+        this.objectWriter = objectMapper != null ? objectMapper.writer() : null;
+        this.streamingMode = streamingMode;
+        this.singleFlights = singleFlights;
+    }
+
+    /**
+     * Returns the processing timeout in milliseconds, or {@code null} for the container default.
+     */
+    public Long getTimeout() {
+        return timeout;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public long getMaxItems() {
+        return maxItems;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the streaming mode, or {@code null} for the handler default.
+     */
+    public StreamingMode getStreamingMode() {
+        return streamingMode;
+    }
+
+    public <T> Observable<T> apply(final Observable<T> observable) {
+        Observable<T> limited = observable;
+        if (maxItems >= 0) {
+            limited = Observable.defer(new Callable<ObservableSource<T>>() {
+                @Override
+                public ObservableSource<T> call() {
+                    return observable.map(new ItemLimit<T>(maxItems));
+                }
+            });
+        }
+        return scheduler != null ? limited.subscribeOn(scheduler) : limited;
+    }
+
+    public <T> Flowable<T> apply(final Flowable<T> flowable) {
+        Flowable<T> limited = flowable;
+        if (maxItems >= 0) {
+            limited = Flowable.defer(new Callable<Publisher<T>>() {
+                @Override
+                public Publisher<T> call() {
+                    return flowable.map(new ItemLimit<T>(maxItems));
+                }
+            });
+        }
+        return scheduler != null ? limited.subscribeOn(scheduler) : limited;
+    }
+
+    /**
+     * Serializes the values as soon as they are emitted, if the size of the response is limited. The size is
+     * measured on the serialized values, which are then written into the response as they are, so every value is
+     * serialized only once and the aggregated response retains no more than the allowed number of bytes. The values
+     * are replaced by their JSON, so only the handlers writing the JSON themselves may use it.
+     */
+    public Observable<Object> serialize(final Observable<Object> observable) {
+        if (maxBytes < 0) {
+            return observable;
+        }
+        return Observable.defer(new Callable<ObservableSource<Object>>() {
+            @Override
+            public ObservableSource<Object> call() {
+                return observable.map(new ByteLimit(objectWriter, maxBytes, true));
+            }
+        });
+    }
+
+    /**
+     * Measures the size of the values serialized into JSON as soon as they are emitted, if the size of the response
+     * is limited, leaving the values themselves to the message converter negotiated for the response.
+     */
+    public Observable<Object> measure(final Observable<Object> observable) {
+        if (maxBytes < 0) {
+            return observable;
+        }
+        return Observable.defer(new Callable<ObservableSource<Object>>() {
+            @Override
+            public ObservableSource<Object> call() {
+                return observable.map(new ByteLimit(objectWriter, maxBytes, false));
+            }
+        });
+    }
+
+    /**
+     * Serializes the values as soon as they are emitted, if the size of the response is limited, see
+     * {@link #serialize(Observable)}.
+     */
+    public Flowable<Object> serialize(final Flowable<Object> flowable) {
+        if (maxBytes < 0) {
+            return flowable;
+        }
+        return Flowable.defer(new Callable<Publisher<Object>>() {
+            @Override
+            public Publisher<Object> call() {
+                return flowable.map(new ByteLimit(objectWriter, maxBytes, true));
+            }
+        });
+    }
+
+    /**
+     * Limits the number of the bytes written into the response, if the size of the response is limited.
+     */
+    public Flowable<ByteBuffer> measure(final Flowable<ByteBuffer> flowable) {
+        if (maxBytes < 0) {
+            return flowable;
+        }
+        return Flowable.defer(new Callable<Publisher<ByteBuffer>>() {
+            @Override
+            public Publisher<ByteBuffer> call() {
+                return flowable.map(new BufferLimit(maxBytes));
+            }
+        });
+    }
+
+    public <T> Single<T> apply(Single<T> single) {
+        return scheduler != null ? single.subscribeOn(scheduler) : single;
+    }
+
+    /**
+     * Shares the value with the identical concurrent requests, if the handler method is annotated with
+     * {@link SingleFlight}.
+     */
+    public <T> Single<T> coalesce(Single<T> single, NativeWebRequest webRequest) {
+        final Object key = singleFlights != null ? singleFlights.key(webRequest) : null;
+        return key != null ? singleFlights.share(key, single) : single;
+    }
+
+    /**
+     * Shares the value with the identical concurrent requests, if the handler method is annotated with
+     * {@link SingleFlight}.
+     */
+    public <T> Observable<T> coalesce(Observable<T> observable, NativeWebRequest webRequest) {
+        final Object key = singleFlights != null ? singleFlights.key(webRequest) : null;
+        return key != null ? singleFlights.share(key, observable) : observable;
+    }
+
+    public <T> Maybe<T> apply(Maybe<T> maybe) {
+        return scheduler != null ? maybe.subscribeOn(scheduler) : maybe;
+    }
+
+    public Completable apply(Completable completable) {
+        return scheduler != null ? completable.subscribeOn(scheduler) : completable;
+    }
+
+    /**
+     * Fails the sequence once it produces more than the allowed number of items. A new instance is created for every
+     * subscription.
+     */
+    private static class ItemLimit<T> implements Function<T, T> {
+
+        private final long maxItems;
+
+        private long count;
+
+        ItemLimit(long maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        @Override
+        public T apply(T value) {
+            if (++count > maxItems) {
+                throw new ResponseLimitExceededException("The response exceeded the limit of " + maxItems + " items");
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Serializes the items into JSON and fails the sequence once the UTF-8 encoded size of the serialized items
+     * exceeds the allowed number of bytes. The items are either replaced by their JSON or only counted into a
+     * discarding stream. A new instance is created for every subscription.
+     */
+    private static class ByteLimit implements Function<Object, Object> {
+
+        private final ObjectWriter objectWriter;
+
+        private final long maxBytes;
+
+        private final boolean raw;
+
+        private final CountingOutputStream counter = new CountingOutputStream();
+
+        private long count;
+
+        ByteLimit(ObjectWriter objectWriter, long maxBytes, boolean raw) {
+            this.objectWriter = objectWriter;
+            this.maxBytes = maxBytes;
+            this.raw = raw;
+        }
+
+        @Override
+        public Object apply(Object value) throws Exception {
+            final Object result;
+            if (raw) {
+                final String json = objectWriter.writeValueAsString(value);
+                count += utf8Length(json);
+                result = new RawValue(json);
+            } else {
+                counter.count = 0;
+                objectWriter.writeValue(counter, value);
+                count += counter.count;
+                result = value;
+            }
+            // the element separator
+            count++;
+            if (count > maxBytes) {
+                throw new ResponseLimitExceededException("The response exceeded the limit of " + maxBytes + " bytes");
+            }
+            return result;
+        }
+
+        private static long utf8Length(String value) {
+            long length = 0;
+            for (int index = 0; index < value.length(); index++) {
+                final char c = value.charAt(index);
+                if (c < 0x80) {
+                    length++;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c)) {
+                    // the surrogate pair encodes a single four byte character
+                    length += 4;
+                    index++;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Counts the bytes written into it and discards them.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) throws IOException {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count += len;
+        }
+    }
+
+    /**
+     * Fails the sequence once the buffers exceed the allowed number of bytes. A new instance is created for every
+     * subscription.
+     */
+    private static class BufferLimit implements Function<ByteBuffer, ByteBuffer> {
+
+        private final long maxBytes;
+
+        private long count;
+
+        BufferLimit(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public ByteBuffer apply(ByteBuffer buffer) {
+            count += buffer.remaining();
+            if (count > maxBytes) {
+                throw new ResponseLimitExceededException("The response exceeded the limit of " + maxBytes + " bytes");
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.jmnarloch.spring.boot.rxjava.async.FileRegion;
+import io.jmnarloch.spring.boot.rxjava.async.FileRegionResponseSubscriber;
+import io.jmnarloch.spring.boot.rxjava.async.ResponseStream;
+import io.reactivex.Single;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * A specialized {@link AsyncHandlerMethodReturnValueHandler} that handles {@code Single<FileRegion>} return types.
+ *
+ * The file region is streamed as the response body, with the support for the range requests.
+ *
+ * @author Jakub Narloch
+ * @see FileRegionResponseSubscriber
+ */
+public class FileRegionReturnValueHandler extends AbstractRxJavaReturnValueHandler {
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return isFileRegion(returnType);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+
+        if (returnValue == null) {
+            mavContainer.setRequestHandled(true);
+            return;
+        }
+
+        final EndpointPolicy policy = getPolicy(returnType);
+        final Single<FileRegion> single = policy.apply((Single<FileRegion>) returnValue);
+        new FileRegionResponseSubscriber(single, ResponseStream.start(policy.getTimeout(), mavContainer, webRequest));
+    }
+
+    static boolean isFileRegion(MethodParameter returnType) {
+        return Single.class.isAssignableFrom(returnType.getParameterType())
+                && FileRegion.class.equals(ResolvableType.forMethodParameter(returnType).getGeneric(0).resolve());
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jmnarloch.spring.boot.rxjava.async.ByteBufferResponseSubscriber;
+import io.jmnarloch.spring.boot.rxjava.async.FlowableResponseSubscriber;
+import io.jmnarloch.spring.boot.rxjava.async.ResponseStream;
+import io.reactivex.Flowable;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+/**
+ * A specialized {@link AsyncHandlerMethodReturnValueHandler} that handles {@link Flowable} return types.
+ *
+ * The produced values are streamed as a JSON array, with the demand driven by the writability of the response. The
+ * {@code Flowable<ByteBuffer>} is streamed as binary content instead, of the type the handler method produces or
+ * {@code application/octet-stream}.
+ *
+ * @author Jakub Narloch
+ * @see FlowableResponseSubscriber
+ * @see ByteBufferResponseSubscriber
+ */
+public class FlowableReturnValueHandler extends AbstractRxJavaReturnValueHandler {
+
+    private static final int DEFAULT_PREFETCH = 16;
+
+    private final ObjectMapper objectMapper;
+
+    private final int prefetch;
+
+    public FlowableReturnValueHandler() {
+        this(null, DEFAULT_PREFETCH);
+    }
+
+    public FlowableReturnValueHandler(ObjectMapper objectMapper, int prefetch) {
+        Assert.isTrue(prefetch > 0, "prefetch must be positive");
+        this.objectMapper = objectMapper != null ? objectMapper : new ObjectMapper();
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    protected ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return Flowable.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+
+        if (returnValue == null) {
+            mavContainer.setRequestHandled(true);
+            return;
+        }
+
+        final EndpointPolicy policy = getPolicy(returnType);
+        final Flowable<?> flowable = policy.apply(Flowable.class.cast(returnValue));
+        final ResponseStream responseStream = ResponseStream.start(policy.getTimeout(), mavContainer, webRequest);
+        if (ByteBuffer.class.equals(ResolvableType.forMethodParameter(returnType).getGeneric(0).resolve())) {
+            new ByteBufferResponseSubscriber(policy.measure((Flowable<ByteBuffer>) flowable), getContentType(webRequest),
+                    prefetch, responseStream);
+        } else {
+            new FlowableResponseSubscriber<Object>(policy.serialize((Flowable<Object>) flowable), objectMapper, prefetch,
+                    responseStream);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MediaType getContentType(NativeWebRequest webRequest) {
+        final Set<MediaType> producible = (Set<MediaType>) webRequest.getAttribute(
+                HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (!CollectionUtils.isEmpty(producible)) {
+            final MediaType contentType = producible.iterator().next();
+            if (contentType.isConcrete()) {
+                return contentType;
+            }
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the parts of a {@code multipart/form-data} body directly from the request input stream, one part at a time,
+ * through a single buffer of a fixed size. Nothing is spooled to memory or to the disk, the content of the part is
+ * read only as it is consumed.
+ *
+ * @author Jakub Narloch
+ */
+class MultipartReader {
+
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    private static final Pattern NAME = Pattern.compile("(?:^|;)\\s*name=\"([^\"]*)\"", Pattern.CASE_INSENSITIVE);
+
+    private static final int MAX_HEADER_SIZE = 8192;
+
+    private final InputStream input;
+
+    private final byte[] delimiter;
+
+    private final byte[] buffer;
+
+    private int position;
+
+    private int limit;
+
+    private boolean eof;
+
+    private boolean inPart = true;
+
+    private boolean finished;
+
+    private Map<String, String> headers;
+
+    /**
+     * Creates new instance of {@link MultipartReader}.
+     *
+     * @param input      the request input stream
+     * @param boundary   the multipart boundary
+     * @param bufferSize the size of the read buffer
+     */
+    MultipartReader(InputStream input, String boundary, int bufferSize) {
+        this.input = input;
+        this.delimiter = ("\r\n--" + boundary).getBytes(ISO_8859_1);
+        this.buffer = new byte[Math.max(bufferSize, MAX_HEADER_SIZE) + delimiter.length];
+        // the first boundary is not preceded by a line break, which is added so that it matches the delimiter
+        this.buffer[0] = '\r';
+        this.buffer[1] = '\n';
+        this.limit = 2;
+    }
+
+    /**
+     * Extracts the boundary from the content type of the request.
+     *
+     * @param contentType the content type
+     * @return the boundary, or {@code null} if the request is not multipart
+     */
+    static String getBoundary(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ENGLISH).startsWith("multipart/")) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            final String[] pair = parameter.trim().split("=", 2);
+            if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("boundary")) {
+                final String boundary = pair[1].trim();
+                return boundary.startsWith("\"") && boundary.endsWith("\"") && boundary.length() > 1
+                        ? boundary.substring(1, boundary.length() - 1) : boundary;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Advances to the next part, skipping the remaining content of the current one.
+     *
+     * @return whether there is next part
+     * @throws IOException if the body could not be read or is malformed
+     */
+    boolean nextPart() throws IOException {
+        if (finished) {
+            return false;
+        }
+        // skips the preamble or the remaining content of the current part
+        if (inPart) {
+            skipContent();
+        }
+        ensure(2);
+        if (buffer[position] == '-' && buffer[position + 1] == '-') {
+            finished = true;
+            return false;
+        }
+        // skips the optional transport padding that follows the boundary
+        readLine();
+        headers = readHeaders();
+        inPart = true;
+        return true;
+    }
+
+    /**
+     * Returns the name of the current part, as given by its {@code Content-Disposition} header.
+     *
+     * @return the part name, or {@code null} if not present
+     */
+    String getName() {
+        final String disposition = getHeader("content-disposition");
+        if (disposition == null) {
+            return null;
+        }
+        final Matcher matcher = NAME.matcher(disposition);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    String getHeader(String name) {
+        return headers != null ? headers.get(name.toLowerCase(Locale.ENGLISH)) : null;
+    }
+
+    /**
+     * Reads the content of the current part.
+     *
+     * @param target the target array
+     * @param offset the offset in the target array
+     * @param length the max number of bytes to read
+     * @return the number of bytes read, or {@code -1} once the part has ended
+     * @throws IOException if the body could not be read or is malformed
+     */
+    int read(byte[] target, int offset, int length) throws IOException {
+        if (!inPart) {
+            return -1;
+        }
+        fill(delimiter.length);
+        final int index = indexOfDelimiter();
+        final int available;
+        if (index == position) {
+            position += delimiter.length;
+            inPart = false;
+            return -1;
+        } else if (index > position) {
+            available = index - position;
+        } else if (eof) {
+            throw new EOFException("The multipart body ended before the closing boundary");
+        } else {
+            // the tail of the buffer may hold the beginning of the delimiter
+            available = limit - position - delimiter.length + 1;
+        }
+        final int count = Math.min(available, length);
+        System.arraycopy(buffer, position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    private void skipContent() throws IOException {
+        while (true) {
+            fill(delimiter.length);
+            final int index = indexOfDelimiter();
+            if (index >= 0) {
+                position = index + delimiter.length;
+                inPart = false;
+                return;
+            } else if (eof) {
+                throw new EOFException("The multipart body ended before the closing boundary");
+            }
+            position = limit - delimiter.length + 1;
+        }
+    }
+
+    private int indexOfDelimiter() {
+        final int last = limit - delimiter.length;
+        outer:
+        for (int index = position; index <= last; index++) {
+            for (int offset = 0; offset < delimiter.length; offset++) {
+                if (buffer[index + offset] != delimiter[offset]) {
+                    continue outer;
+                }
+            }
+            return index;
+        }
+        return -1;
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        final Map<String, String> headers = new LinkedHashMap<String, String>();
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            final int separator = line.indexOf(':');
+            if (separator > 0) {
+                headers.put(line.substring(0, separator).trim().toLowerCase(Locale.ENGLISH),
+                        line.substring(separator + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    private String readLine() throws IOException {
+        for (int scanned = 0; ; ) {
+            for (int index = position + scanned; index + 1 < limit; index++) {
+                if (buffer[index] == '\r' && buffer[index + 1] == '\n') {
+                    final String line = new String(buffer, position, index - position, ISO_8859_1);
+                    position = index + 2;
+                    return line;
+                }
+            }
+            scanned = Math.max(limit - position - 1, 0);
+            if (limit - position >= MAX_HEADER_SIZE) {
+                throw new IOException("The multipart header exceeds " + MAX_HEADER_SIZE + " bytes");
+            }
+            if (!fillMore()) {
+                throw new EOFException("The multipart body ended within the part headers");
+            }
+        }
+    }
+
+    private void ensure(int count) throws IOException {
+        fill(count);
+        if (limit - position < count) {
+            throw new EOFException("The multipart body ended unexpectedly");
+        }
+    }
+
+    private void fill(int count) throws IOException {
+        while (limit - position < count && fillMore()) {
+            // reads until the requested number of bytes is buffered or the input ends
+        }
+    }
+
+    private boolean fillMore() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            return false;
+        }
+        final int count = input.read(buffer, limit, buffer.length - limit);
+        if (count == -1) {
+            eof = true;
+            return false;
+        }
+        limit += count;
+        return true;
+    }
+}
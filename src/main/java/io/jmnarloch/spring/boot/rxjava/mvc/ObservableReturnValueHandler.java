@@ -15,8 +15,14 @@
  */
 package io.jmnarloch.spring.boot.rxjava.mvc;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jmnarloch.spring.boot.rxjava.async.FlushPolicy;
+import io.jmnarloch.spring.boot.rxjava.async.JsonArrayResponseObserver;
+import io.jmnarloch.spring.boot.rxjava.async.NdjsonResponseObserver;
 import io.jmnarloch.spring.boot.rxjava.async.ObservableDeferredResult;
+import io.jmnarloch.spring.boot.rxjava.async.ResponseStream;
 import org.springframework.core.MethodParameter;
+import org.springframework.util.Assert;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
@@ -26,14 +32,45 @@ import io.reactivex.Observable;
 /**
  * A specialized {@link AsyncHandlerMethodReturnValueHandler} that handles {@link Observable} return types.
  *
+ * By default the produced values are aggregated into a list, alternatively the handler can be configured with
+ * {@link StreamingMode#JSON_ARRAY} or {@link StreamingMode#NDJSON} so that the values are written to the response as
+ * soon as they are emitted. The newline delimited JSON is flushed according to the configured {@link FlushPolicy}.
+ *
  * @author Jakub Narloch
  * @see ObservableDeferredResult
+ * @see JsonArrayResponseObserver
+ * @see NdjsonResponseObserver
  */
-public class ObservableReturnValueHandler implements AsyncHandlerMethodReturnValueHandler {
+public class ObservableReturnValueHandler extends AbstractRxJavaReturnValueHandler {
+
+    private final StreamingMode streamingMode;
+
+    private final ObjectMapper objectMapper;
+
+    private FlushPolicy flushPolicy = FlushPolicy.PER_ITEM;
+
+    public ObservableReturnValueHandler() {
+        this(StreamingMode.NONE, null);
+    }
+
+    public ObservableReturnValueHandler(StreamingMode streamingMode, ObjectMapper objectMapper) {
+        Assert.notNull(streamingMode, "streamingMode can not be null");
+        this.streamingMode = streamingMode;
+        this.objectMapper = objectMapper != null ? objectMapper : new ObjectMapper();
+    }
+
+    public void setFlushPolicy(FlushPolicy flushPolicy) {
+        Assert.notNull(flushPolicy, "flushPolicy can not be null");
+        this.flushPolicy = flushPolicy;
+    }
+
+    public FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
 
     @Override
-    public boolean isAsyncReturnValue(Object returnValue, MethodParameter returnType) {
-        return returnValue != null && supportsReturnType(returnType);
+    protected ObjectMapper getObjectMapper() {
+        return objectMapper;
     }
 
     @Override
@@ -50,8 +87,24 @@ public class ObservableReturnValueHandler implements AsyncHandlerMethodReturnVal
             return;
         }
 
-        final Observable<?> observable = Observable.class.cast(returnValue);
-        WebAsyncUtils.getAsyncManager(webRequest)
-                .startDeferredResultProcessing(new ObservableDeferredResult(observable), mavContainer);
+        final EndpointPolicy policy = getPolicy(returnType);
+        final StreamingMode mode = policy.getStreamingMode() != null ? policy.getStreamingMode() : streamingMode;
+        final Observable<Object> limited = policy.apply((Observable<Object>) returnValue);
+        final Observable<Object> observable = policy.coalesce(
+                mode == StreamingMode.NONE ? policy.measure(limited) : policy.serialize(limited), webRequest);
+        if (mode == StreamingMode.JSON_ARRAY) {
+            new JsonArrayResponseObserver<Object>(observable, objectMapper,
+                    ResponseStream.start(policy.getTimeout(), mavContainer, webRequest));
+            return;
+        }
+        if (mode == StreamingMode.NDJSON) {
+            new NdjsonResponseObserver<Object>(observable, objectMapper, flushPolicy,
+                    ResponseStream.start(policy.getTimeout(), mavContainer, webRequest));
+            return;
+        }
+        final ObservableDeferredResult<Object> deferredResult = policy.getTimeout() != null
+                ? new ObservableDeferredResult<Object>(policy.getTimeout(), observable)
+                : new ObservableDeferredResult<Object>(observable);
+        WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(deferredResult, mavContainer);
     }
 }
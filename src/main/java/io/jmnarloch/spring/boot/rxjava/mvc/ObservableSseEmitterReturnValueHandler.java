@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jmnarloch.spring.boot.rxjava.async.ObservableSseEmitter;
+import io.jmnarloch.spring.boot.rxjava.async.ResponseStream;
+import io.jmnarloch.spring.boot.rxjava.async.SseTopic;
+import io.reactivex.Scheduler;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitterReturnValueHandler;
+
+import javax.servlet.ServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A specialized {@link AsyncHandlerMethodReturnValueHandler} that handles {@link ObservableSseEmitter} return types.
+ *
+ * The non-blocking emitters are connected directly with the response, while the remaining ones are passed to the
+ * Spring MVC {@link ResponseBodyEmitterReturnValueHandler}. The handler therefore needs to precede it, which is what
+ * {@link #register(RequestMappingHandlerAdapter, Scheduler, ObjectMapper)} takes care of.
+ *
+ * Either way the emitter is subscribed to its {@link io.reactivex.Observable} only once it has been handled, on the
+ * given scheduler, and resumes a {@link SseTopic} after the event identified by the {@code Last-Event-ID} header.
+ *
+ * @author Jakub Narloch
+ * @see ObservableSseEmitter#isNonBlocking()
+ */
+public class ObservableSseEmitterReturnValueHandler implements AsyncHandlerMethodReturnValueHandler {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final HandlerMethodReturnValueHandler delegate;
+
+    private final Scheduler scheduler;
+
+    private final ObjectMapper objectMapper;
+
+    public ObservableSseEmitterReturnValueHandler(HandlerMethodReturnValueHandler delegate) {
+        this(delegate, null, null);
+    }
+
+    public ObservableSseEmitterReturnValueHandler(HandlerMethodReturnValueHandler delegate, Scheduler scheduler,
+                                                  ObjectMapper objectMapper) {
+        Assert.notNull(delegate, "delegate can not be null");
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean isAsyncReturnValue(Object returnValue, MethodParameter returnType) {
+        return returnValue != null && supportsReturnType(returnType);
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return ObservableSseEmitter.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+
+        if (returnValue == null) {
+            mavContainer.setRequestHandled(true);
+            return;
+        }
+
+        final ObservableSseEmitter<?> emitter = ObservableSseEmitter.class.cast(returnValue);
+        final String lastEventId = webRequest.getHeader(LAST_EVENT_ID);
+        if (!emitter.isNonBlocking()) {
+            delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+            emitter.subscribe(scheduler, objectMapper, lastEventId);
+            return;
+        }
+        ShallowEtagHeaderFilter.disableContentCaching(webRequest.getNativeRequest(ServletRequest.class));
+        emitter.connect(ResponseStream.start(emitter.getTimeout(), mavContainer, webRequest),
+                scheduler, objectMapper, lastEventId);
+    }
+
+    /**
+     * Registers the handler in front of the {@link ResponseBodyEmitterReturnValueHandler} of the adapter.
+     *
+     * @param adapter the handler adapter
+     */
+    public static void register(RequestMappingHandlerAdapter adapter) {
+        register(adapter, null, null);
+    }
+
+    /**
+     * Registers the handler in front of the {@link ResponseBodyEmitterReturnValueHandler} of the adapter.
+     *
+     * @param adapter      the handler adapter
+     * @param scheduler    the scheduler to subscribe the emitters on, may be {@code null}
+     * @param objectMapper the object mapper used for the events rendered by the emitters, may be {@code null}
+     */
+    public static void register(RequestMappingHandlerAdapter adapter, Scheduler scheduler, ObjectMapper objectMapper) {
+        final List<HandlerMethodReturnValueHandler> handlers =
+                new ArrayList<HandlerMethodReturnValueHandler>(adapter.getReturnValueHandlers());
+        for (int index = 0; index < handlers.size(); index++) {
+            final HandlerMethodReturnValueHandler handler = handlers.get(index);
+            if (handler instanceof ObservableSseEmitterReturnValueHandler) {
+                return;
+            }
+            if (handler instanceof ResponseBodyEmitterReturnValueHandler) {
+                handlers.add(index, new ObservableSseEmitterReturnValueHandler(handler, scheduler, objectMapper));
+                adapter.setReturnValueHandlers(handlers);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.Consumer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestResponseBodyMethodProcessor;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A {@link HandlerMethodArgumentResolver} that binds the {@link RequestBody} parameters of {@link Observable} and
+ * {@link Flowable} types, so that large request bodies can be processed value by value instead of being bound to a
+ * list up front.
+ *
+ * The body is parsed incrementally with the Jackson streaming parser only once the returned type is subscribed, and
+ * a single value is parsed per emission. The {@link Flowable} parses the next value only when it is requested, so the
+ * memory used by the request does not depend on the body size. The body may be either a JSON array or a sequence of
+ * JSON documents, such as the newline delimited JSON. The returned types can be subscribed only once.
+ *
+ * The resolver needs to precede the Spring MVC {@link RequestResponseBodyMethodProcessor}, which is what
+ * {@link #register(RequestMappingHandlerAdapter, ObjectMapper)} takes care of.
+ *
+ * @author Jakub Narloch
+ */
+public class ReactiveRequestBodyArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final ObjectMapper objectMapper;
+
+    public ReactiveRequestBodyArgumentResolver(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper != null ? objectMapper : new ObjectMapper();
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        final Class<?> type = parameter.getParameterType();
+        return parameter.hasParameterAnnotation(RequestBody.class)
+                && (Observable.class.equals(type) || Flowable.class.equals(type));
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+
+        final HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        final ObjectReader reader = objectMapper.readerFor(objectMapper.getTypeFactory()
+                .constructType(ResolvableType.forMethodParameter(parameter).getGeneric(0).getType()));
+        final Callable<BodyParser> parser = new Callable<BodyParser>() {
+            @Override
+            public BodyParser call() throws Exception {
+                return new BodyParser(objectMapper.getFactory().createParser(request.getInputStream()), reader);
+            }
+        };
+
+        if (Flowable.class.equals(parameter.getParameterType())) {
+            return Flowable.generate(parser, new ParseNext(), new CloseParser());
+        }
+        return Observable.generate(parser, new ParseNext(), new CloseParser());
+    }
+
+    /**
+     * Registers the resolver in front of the {@link RequestResponseBodyMethodProcessor} of the adapter.
+     *
+     * @param adapter      the handler adapter
+     * @param objectMapper the object mapper
+     */
+    public static void register(RequestMappingHandlerAdapter adapter, ObjectMapper objectMapper) {
+        final List<HandlerMethodArgumentResolver> resolvers =
+                new ArrayList<HandlerMethodArgumentResolver>(adapter.getArgumentResolvers());
+        for (int index = 0; index < resolvers.size(); index++) {
+            final HandlerMethodArgumentResolver resolver = resolvers.get(index);
+            if (resolver instanceof ReactiveRequestBodyArgumentResolver) {
+                return;
+            }
+            if (resolver instanceof RequestResponseBodyMethodProcessor) {
+                resolvers.add(index, new ReactiveRequestBodyArgumentResolver(objectMapper));
+                adapter.setArgumentResolvers(resolvers);
+                return;
+            }
+        }
+    }
+
+    private static class BodyParser {
+
+        private final JsonParser parser;
+
+        private final ObjectReader reader;
+
+        private boolean started;
+
+        private boolean array;
+
+        BodyParser(JsonParser parser, ObjectReader reader) {
+            this.parser = parser;
+            this.reader = reader;
+            this.parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        }
+
+        void next(Emitter<Object> emitter) throws IOException {
+            JsonToken token = parser.nextToken();
+            if (!started) {
+                started = true;
+                if (token == JsonToken.START_ARRAY) {
+                    array = true;
+                    token = parser.nextToken();
+                }
+            }
+            if (token == null || (array && token == JsonToken.END_ARRAY)) {
+                emitter.onComplete();
+                return;
+            }
+            if (token == JsonToken.VALUE_NULL) {
+                emitter.onError(new HttpMessageNotReadableException("The request body contains a null value"));
+                return;
+            }
+            emitter.onNext(reader.readValue(parser));
+        }
+
+        void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    private static class ParseNext implements BiConsumer<BodyParser, Emitter<Object>> {
+
+        @Override
+        public void accept(BodyParser parser, Emitter<Object> emitter) {
+            try {
+                parser.next(emitter);
+            } catch (IOException e) {
+                emitter.onError(new HttpMessageNotReadableException("Could not read the request body: " + e.getMessage(), e));
+            }
+        }
+    }
+
+    private static class CloseParser implements Consumer<BodyParser> {
+
+        @Override
+        public void accept(BodyParser parser) throws Exception {
+            parser.close();
+        }
+    }
+}
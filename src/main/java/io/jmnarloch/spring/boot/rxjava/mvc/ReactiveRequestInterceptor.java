@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.jmnarloch.spring.boot.rxjava.async.ObservableSseEmitter;
+import io.jmnarloch.spring.boot.rxjava.async.ReactiveRequestListener;
+import io.jmnarloch.spring.boot.rxjava.async.ReactiveRequestListenerFactory;
+import io.jmnarloch.spring.boot.rxjava.async.ReactiveRequestRegistry;
+import io.jmnarloch.spring.boot.rxjava.async.RequestLifecycle;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.Assert;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An interceptor that binds the {@link ReactiveRequestListener} of the invoked handler method to the request thread,
+ * so that the observers created by the handler report their lifecycle to it. The listeners are resolved once per
+ * handler method. When the {@link ReactiveRequestRegistry} is given the observers are tracked by it as well, and once
+ * the registry is being drained the new requests to the handler methods returning the reactive types are rejected.
+ *
+ * @author Jakub Narloch
+ * @see RequestLifecycle
+ */
+public class ReactiveRequestInterceptor extends HandlerInterceptorAdapter {
+
+    private static final Class<?>[] REACTIVE_TYPES = {
+            Observable.class, Flowable.class, Single.class, Maybe.class, Completable.class, ObservableSseEmitter.class
+    };
+
+    private final ReactiveRequestListenerFactory listenerFactory;
+
+    private final ReactiveRequestRegistry registry;
+
+    private final ConcurrentMap<Method, ReactiveRequestListener> listeners =
+            new ConcurrentHashMap<Method, ReactiveRequestListener>();
+
+    private final ConcurrentMap<Method, String> names = new ConcurrentHashMap<Method, String>();
+
+    public ReactiveRequestInterceptor(ReactiveRequestListenerFactory listenerFactory) {
+        this(listenerFactory, null);
+    }
+
+    public ReactiveRequestInterceptor(ReactiveRequestListenerFactory listenerFactory, ReactiveRequestRegistry registry) {
+        Assert.isTrue(listenerFactory != null || registry != null, "listenerFactory or registry is required");
+        this.listenerFactory = listenerFactory;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (handler instanceof HandlerMethod) {
+            final HandlerMethod handlerMethod = (HandlerMethod) handler;
+            if (registry != null && registry.isDraining() && isReactive(handlerMethod)) {
+                response.setHeader(HttpHeaders.CONNECTION, "close");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return false;
+            }
+            if (registry == null) {
+                RequestLifecycle.bind(getListener(handlerMethod));
+            } else {
+                RequestLifecycle.bind(getListener(handlerMethod), registry, getName(handlerMethod));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        RequestLifecycle.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        RequestLifecycle.unbind();
+    }
+
+    private ReactiveRequestListener getListener(HandlerMethod handlerMethod) {
+        if (listenerFactory == null) {
+            return null;
+        }
+        ReactiveRequestListener listener = listeners.get(handlerMethod.getMethod());
+        if (listener == null) {
+            listener = listenerFactory.getListener(handlerMethod);
+            final ReactiveRequestListener existing = listeners.putIfAbsent(handlerMethod.getMethod(), listener);
+            if (existing != null) {
+                listener = existing;
+            }
+        }
+        return listener;
+    }
+
+    private String getName(HandlerMethod handlerMethod) {
+        String name = names.get(handlerMethod.getMethod());
+        if (name == null) {
+            name = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+            names.putIfAbsent(handlerMethod.getMethod(), name);
+        }
+        return name;
+    }
+
+    private static boolean isReactive(HandlerMethod handlerMethod) {
+        final Class<?> returnType = handlerMethod.getMethod().getReturnType();
+        for (Class<?> type : REACTIVE_TYPES) {
+            if (type.isAssignableFrom(returnType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
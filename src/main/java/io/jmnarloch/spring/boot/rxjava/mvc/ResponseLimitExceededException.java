@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the value returned by a handler method exceeds the configured response limits. The upstream
+ * subscription is disposed as soon as the limit is exceeded.
+ *
+ * @author Jakub Narloch
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class ResponseLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ResponseLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Tunes the handling of the RxJava types returned by a single handler method or by all handler methods of a
+ * controller. The annotation is resolved only once per handler method, the attributes that are not set fall back to
+ * the {@code rxjava.mvc} configuration.
+ *
+ * @author Jakub Narloch
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RxEndpoint {
+
+    /**
+     * The processing timeout in milliseconds, by default the container timeout is used.
+     */
+    long timeout() default -1;
+
+    /**
+     * The name of the {@link io.reactivex.Scheduler} bean on which the returned value is subscribed, by default the
+     * {@link io.jmnarloch.spring.boot.rxjava.config.RxJava} qualified scheduler is used if any.
+     */
+    String scheduler() default "";
+
+    /**
+     * The max number of items the returned {@link io.reactivex.Observable} or {@link io.reactivex.Flowable} is
+     * allowed to produce, by default the {@code rxjava.mvc.limits.max-items} is used. The request fails with
+     * {@link ResponseLimitExceededException} once the limit is exceeded.
+     */
+    long maxItems() default -1;
+
+    /**
+     * The max size in bytes of the serialized items the returned {@link io.reactivex.Observable} or
+     * {@link io.reactivex.Flowable} is allowed to produce, by default the {@code rxjava.mvc.limits.max-bytes} is used.
+     * The request fails with {@link ResponseLimitExceededException} once the limit is exceeded.
+     */
+    long maxBytes() default -1;
+
+    /**
+     * The streaming mode of the returned {@link io.reactivex.Observable}, by default the mode of the handler is used.
+     */
+    StreamingMode[] streamingMode() default {};
+}
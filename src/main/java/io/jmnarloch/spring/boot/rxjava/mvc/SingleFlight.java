@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Coalesces the identical concurrent requests to the handler method returning a {@link io.reactivex.Single} or an
+ * {@link io.reactivex.Observable}, so that they share a single subscription to the returned value and all receive
+ * its result. The shared subscription is forgotten as soon as it terminates, the subsequent requests subscribe anew.
+ *
+ * The requests are identical when they have the same path, query string and authenticated user, and the same values
+ * of the headers and cookies bound through {@link org.springframework.web.bind.annotation.RequestHeader} and
+ * {@link org.springframework.web.bind.annotation.CookieValue}. An anonymous request carrying credentials, cookies or a
+ * session is not coalesced, and neither are the requests to a method binding the request body or the request
+ * itself. Only the {@code GET} and {@code HEAD} requests are coalesced. The shared subscription keeps running even
+ * if all of the requests have been cancelled, so the annotation is meant for the finite sequences only.
+ *
+ * @author Jakub Narloch
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.functions.Action;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The in flight subscriptions of a single handler method annotated with {@link SingleFlight}, keyed by the request.
+ *
+ * The key is made of the request path and query string, the authenticated user and the request headers and cookies
+ * the handler method binds through {@link RequestHeader} and {@link CookieValue}. An anonymous request that carries
+ * credentials, cookies or a session is not coalesced, as it may be authenticated by means the key does not cover.
+ *
+ * The entry is added only once the shared value is subscribed and removed once it terminates, before the result is
+ * replayed to the requests, so a request arriving afterwards never observes a stale result. The source is disposed
+ * and the entry removed as well once every request sharing it has been disposed, for instance after timing out, so
+ * a source that never terminates does not remain in the group.
+ *
+ * @author Jakub Narloch
+ */
+final class SingleFlightGroup {
+
+    private static final List<Class<?>> UNSUPPORTED_TYPES = Arrays.<Class<?>>asList(ServletRequest.class,
+            ServletResponse.class, WebRequest.class, HttpSession.class, InputStream.class, Reader.class,
+            HttpEntity.class);
+
+    private final ConcurrentMap<Object, Single<?>> singles = new ConcurrentHashMap<Object, Single<?>>();
+
+    private final ConcurrentMap<Object, Observable<?>> observables = new ConcurrentHashMap<Object, Observable<?>>();
+
+    private final List<String> headers;
+
+    private final List<String> cookies;
+
+    private SingleFlightGroup(List<String> headers, List<String> cookies) {
+        this.headers = headers;
+        this.cookies = cookies;
+    }
+
+    /**
+     * Creates the group of the handler method.
+     *
+     * @param method the handler method
+     * @return the group, or {@code null} if the method binds arguments from the parts of the request the key does not
+     * cover
+     */
+    static SingleFlightGroup of(Method method) {
+        final List<String> headers = new ArrayList<String>();
+        final List<String> cookies = new ArrayList<String>();
+        for (int index = 0; index < method.getParameterTypes().length; index++) {
+            final MethodParameter parameter = new MethodParameter(method, index);
+            final Class<?> type = parameter.getParameterType();
+            for (Class<?> unsupported : UNSUPPORTED_TYPES) {
+                if (unsupported.isAssignableFrom(type)) {
+                    return null;
+                }
+            }
+            if (parameter.hasParameterAnnotation(RequestBody.class)
+                    || parameter.hasParameterAnnotation(RequestPart.class)) {
+                return null;
+            }
+            final RequestHeader header = parameter.getParameterAnnotation(RequestHeader.class);
+            if (header != null) {
+                final String name = StringUtils.hasText(header.value()) ? header.value() : header.name();
+                if (!StringUtils.hasText(name) || Map.class.isAssignableFrom(type)
+                        || HttpHeaders.class.isAssignableFrom(type)) {
+                    return null;
+                }
+                headers.add(name);
+            }
+            final CookieValue cookie = parameter.getParameterAnnotation(CookieValue.class);
+            if (cookie != null) {
+                final String name = StringUtils.hasText(cookie.value()) ? cookie.value() : cookie.name();
+                if (!StringUtils.hasText(name)) {
+                    return null;
+                }
+                cookies.add(name);
+            }
+        }
+        return new SingleFlightGroup(headers, cookies);
+    }
+
+    /**
+     * Derives the key of the request.
+     *
+     * @param webRequest the current request
+     * @return the key, or {@code null} if the request can not be coalesced
+     */
+    Object key(NativeWebRequest webRequest) {
+        final HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        final String method = request.getMethod();
+        if (!HttpMethod.GET.name().equals(method) && !HttpMethod.HEAD.name().equals(method)) {
+            return null;
+        }
+        final Principal principal = request.getUserPrincipal();
+        if (principal == null && (request.getHeader(HttpHeaders.AUTHORIZATION) != null
+                || request.getCookies() != null || request.getSession(false) != null)) {
+            return null;
+        }
+        final List<Object> key = new ArrayList<Object>();
+        key.add(method);
+        key.add(request.getRequestURI());
+        key.add(request.getQueryString());
+        key.add(principal != null ? principal.getName() : null);
+        for (String header : headers) {
+            key.add(Collections.list(request.getHeaders(header)));
+        }
+        for (String name : cookies) {
+            final Cookie cookie = WebUtils.getCookie(request, name);
+            key.add(cookie != null ? cookie.getValue() : null);
+        }
+        return key;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Single<T> share(final Object key, final Single<T> single) {
+        return Single.defer(new Callable<SingleSource<T>>() {
+            @Override
+            public SingleSource<T> call() {
+                final Eviction eviction = new Eviction(singles, key);
+                final Single<T> shared = single.toObservable()
+                        .doOnTerminate(eviction)
+                        .doOnDispose(eviction)
+                        .replay()
+                        .refCount()
+                        .singleOrError();
+                eviction.value = shared;
+                final Single<?> existing = singles.putIfAbsent(key, shared);
+                return existing != null ? (Single<T>) existing : shared;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Observable<T> share(final Object key, final Observable<T> observable) {
+        return Observable.defer(new Callable<ObservableSource<T>>() {
+            @Override
+            public ObservableSource<T> call() {
+                final Eviction eviction = new Eviction(observables, key);
+                final Observable<T> shared = observable
+                        .doOnTerminate(eviction)
+                        .doOnDispose(eviction)
+                        .replay()
+                        .refCount();
+                eviction.value = shared;
+                final Observable<?> existing = observables.putIfAbsent(key, shared);
+                return existing != null ? (Observable<T>) existing : shared;
+            }
+        });
+    }
+
+    /**
+     * Removes the shared value from the group, unless the key has been already taken by another value.
+     */
+    private static final class Eviction implements Action {
+
+        private final ConcurrentMap<Object, ?> entries;
+
+        private final Object key;
+
+        private volatile Object value;
+
+        Eviction(ConcurrentMap<Object, ?> entries, Object key) {
+            this.entries = entries;
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            entries.remove(key, value);
+        }
+    }
+}
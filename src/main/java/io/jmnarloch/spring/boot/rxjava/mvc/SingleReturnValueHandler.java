@@ -24,21 +24,18 @@ import org.springframework.web.method.support.ModelAndViewContainer;
 import io.reactivex.Single;
 
 /**
- * A specialized {@link AsyncHandlerMethodReturnValueHandler} that handles {@link Single} return types.
+ * A specialized {@link AsyncHandlerMethodReturnValueHandler} that handles {@link Single} return types, except for
+ * the file regions handled by the {@link FileRegionReturnValueHandler}.
  *
  * @author Jakub Narloch
  * @see SingleDeferredResult
  */
-public class SingleReturnValueHandler implements AsyncHandlerMethodReturnValueHandler {
-
-    @Override
-    public boolean isAsyncReturnValue(Object returnValue, MethodParameter returnType) {
-        return returnValue != null && supportsReturnType(returnType);
-    }
+public class SingleReturnValueHandler extends AbstractRxJavaReturnValueHandler {
 
     @Override
     public boolean supportsReturnType(MethodParameter returnType) {
-        return Single.class.isAssignableFrom(returnType.getParameterType());
+        return Single.class.isAssignableFrom(returnType.getParameterType())
+                && !FileRegionReturnValueHandler.isFileRegion(returnType);
     }
 
     @SuppressWarnings("unchecked")
@@ -50,8 +47,11 @@ public class SingleReturnValueHandler implements AsyncHandlerMethodReturnValueHa
             return;
         }
 
-        final Single<?> single = Single.class.cast(returnValue);
-        WebAsyncUtils.getAsyncManager(webRequest)
-                .startDeferredResultProcessing(new SingleDeferredResult(single), mavContainer);
+        final EndpointPolicy policy = getPolicy(returnType);
+        final Single<Object> single = policy.coalesce(policy.apply((Single<Object>) returnValue), webRequest);
+        final SingleDeferredResult<Object> deferredResult = policy.getTimeout() != null
+                ? new SingleDeferredResult<Object>(policy.getTimeout(), single)
+                : new SingleDeferredResult<Object>(single);
+        WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(deferredResult, mavContainer);
     }
 }
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+/**
+ * Defines how the values produced by the {@link io.reactivex.Observable} are written into the response.
+ *
+ * @author Jakub Narloch
+ */
+public enum StreamingMode {
+
+    /**
+     * The values are aggregated into a list that is written through Spring's message converters once the
+     * {@link io.reactivex.Observable} completes.
+     */
+    NONE,
+
+    /**
+     * The values are written one by one as the elements of a JSON array as soon as they are emitted.
+     */
+    JSON_ARRAY,
+
+    /**
+     * The values are written one by one as the lines of newline delimited JSON ({@code application/x-ndjson}) as soon
+     * as they are emitted and flushed according to the flush policy of the handler.
+     */
+    NDJSON
+}
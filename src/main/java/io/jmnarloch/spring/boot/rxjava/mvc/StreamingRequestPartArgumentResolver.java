@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.internal.functions.Functions;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartRequest;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestPartMethodArgumentResolver;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A {@link HandlerMethodArgumentResolver} that binds the {@link RequestPart} parameters of {@code Flowable<ByteBuffer>}
+ * type to the content of the named part of a {@code multipart/form-data} request, so that the uploaded files can be
+ * processed without being held in memory or spooled to the disk.
+ *
+ * The body is read directly from the request input stream only once the {@link Flowable} is subscribed, and a single
+ * chunk of a fixed size is read per requested value, so the memory used by the request is bounded by the chunk size
+ * and the demand of the subscriber. The parts preceding the named one are skipped, the parts following it are not
+ * read, and neither is the rest of the part once the subscription is disposed, the request input stream being
+ * released by the container. The returned {@link Flowable} can be subscribed only once.
+ *
+ * The request body can be read only once, so the multipart resolver of Spring MVC, which parses the whole request up
+ * front, needs to be disabled with {@code multipart.enabled=false}. The resolver needs to precede the Spring MVC
+ * {@link RequestPartMethodArgumentResolver}, which is what {@link #register(RequestMappingHandlerAdapter, int)} takes
+ * care of.
+ *
+ * @author Jakub Narloch
+ */
+public class StreamingRequestPartArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final int chunkSize;
+
+    public StreamingRequestPartArgumentResolver(int chunkSize) {
+        Assert.isTrue(chunkSize > 0, "Chunk size must be positive");
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(RequestPart.class)
+                && Flowable.class.equals(parameter.getParameterType())
+                && ByteBuffer.class.equals(ResolvableType.forMethodParameter(parameter).getGeneric(0).resolve());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+
+        final HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        final String boundary = MultipartReader.getBoundary(request.getContentType());
+        if (boundary == null) {
+            throw new MultipartException("The current request is not a multipart request");
+        }
+        if (webRequest.getNativeRequest(MultipartRequest.class) != null) {
+            throw new MultipartException("The multipart request has already been parsed by the multipart resolver, " +
+                    "which needs to be disabled for streaming the request parts");
+        }
+
+        final RequestPart annotation = parameter.getParameterAnnotation(RequestPart.class);
+        final String name = StringUtils.hasText(annotation.value()) ? annotation.value() : parameter.getParameterName();
+        final boolean required = annotation.required();
+        return Flowable.generate(new Callable<PartReader>() {
+            @Override
+            public PartReader call() throws Exception {
+                return new PartReader(new MultipartReader(request.getInputStream(), boundary, chunkSize),
+                        name, required, chunkSize);
+            }
+        }, new ReadNext(), Functions.<PartReader>emptyConsumer());
+    }
+
+    /**
+     * Registers the resolver in front of the {@link RequestPartMethodArgumentResolver} of the adapter.
+     *
+     * @param adapter   the handler adapter
+     * @param chunkSize the size of the chunks the parts are read in
+     */
+    public static void register(RequestMappingHandlerAdapter adapter, int chunkSize) {
+        final List<HandlerMethodArgumentResolver> resolvers =
+                new ArrayList<HandlerMethodArgumentResolver>(adapter.getArgumentResolvers());
+        for (int index = 0; index < resolvers.size(); index++) {
+            final HandlerMethodArgumentResolver resolver = resolvers.get(index);
+            if (resolver instanceof StreamingRequestPartArgumentResolver) {
+                return;
+            }
+            if (resolver instanceof RequestPartMethodArgumentResolver) {
+                resolvers.add(index, new StreamingRequestPartArgumentResolver(chunkSize));
+                adapter.setArgumentResolvers(resolvers);
+                return;
+            }
+        }
+    }
+
+    private static class PartReader {
+
+        private final MultipartReader reader;
+
+        private final String name;
+
+        private final boolean required;
+
+        private final int chunkSize;
+
+        private boolean found;
+
+        PartReader(MultipartReader reader, String name, boolean required, int chunkSize) {
+            this.reader = reader;
+            this.name = name;
+            this.required = required;
+            this.chunkSize = chunkSize;
+        }
+
+        void next(Emitter<ByteBuffer> emitter) throws IOException {
+            if (!found && !find()) {
+                if (required) {
+                    emitter.onError(new MissingServletRequestPartException(name));
+                } else {
+                    emitter.onComplete();
+                }
+                return;
+            }
+            final byte[] chunk = new byte[chunkSize];
+            int length = 0;
+            int count;
+            while (length < chunkSize && (count = reader.read(chunk, length, chunkSize - length)) != -1) {
+                length += count;
+            }
+            if (length == 0) {
+                emitter.onComplete();
+                return;
+            }
+            emitter.onNext(ByteBuffer.wrap(chunk, 0, length));
+        }
+
+        private boolean find() throws IOException {
+            while (reader.nextPart()) {
+                if (name.equals(reader.getName())) {
+                    found = true;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class ReadNext implements BiConsumer<PartReader, Emitter<ByteBuffer>> {
+
+        @Override
+        public void accept(PartReader reader, Emitter<ByteBuffer> emitter) {
+            try {
+                reader.next(emitter);
+            } catch (IOException e) {
+                emitter.onError(new MultipartException("Could not read the multipart request: " + e.getMessage(), e));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link GzipCompressor} class.
+ *
+ * @author Jakub Narloch
+ */
+public class GzipCompressorTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final GzipCompressor compressor = new GzipCompressor(Deflater.DEFAULT_COMPRESSION);
+
+    @Test
+    public void shouldProduceValidGzipStream() throws Exception {
+
+        // given
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final StringBuilder expected = new StringBuilder();
+
+        // when
+        for (int index = 0; index < 1000; index++) {
+            final String frame = "data:{\"symbol\":\"ABC\",\"price\":" + index + "}\n\n";
+            expected.append(frame);
+            output.write(compressor.compress(frame.getBytes(UTF_8)));
+            if (index % 10 == 0) {
+                output.write(compressor.flush());
+            }
+        }
+        output.write(compressor.finish());
+        compressor.end();
+
+        // then
+        assertEquals(expected.toString(), read(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))));
+        assertTrue(output.size() * 5 < expected.length());
+    }
+
+    @Test
+    public void shouldReleaseAllDataOnFlush() throws Exception {
+
+        // given
+        final String frame = "data:message\n\n";
+
+        // when
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(compressor.compress(frame.getBytes(UTF_8)));
+        output.write(compressor.flush());
+        compressor.end();
+
+        // then
+        final byte[] compressed = output.toByteArray();
+        final int headerLength = 10;
+        assertEquals(frame, read(new InflaterInputStream(new ByteArrayInputStream(compressed, headerLength,
+                compressed.length - headerLength), new Inflater(true))));
+    }
+
+    private static String read(InputStream input) throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        try {
+            int count;
+            while ((count = input.read(buffer)) > 0) {
+                output.write(buffer, 0, count);
+            }
+        } catch (EOFException e) {
+            // the stream that has only been flushed ends without the trailer
+        }
+        return new String(output.toByteArray(), UTF_8);
+    }
+}
@@ -18,12 +18,16 @@ package io.jmnarloch.spring.boot.rxjava.async;
 import io.jmnarloch.spring.boot.rxjava.dto.EventDto;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
 import org.springframework.boot.test.TestRestTemplate;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
@@ -33,12 +37,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 import io.reactivex.Observable;
+import io.reactivex.functions.Function;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
 
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
 
 /**
@@ -58,11 +67,17 @@ public class ObservableSseEmitterTest {
 
     private TestRestTemplate restTemplate = new TestRestTemplate();
 
+    @Autowired
+    private SseTopicRegistry registry;
+
     @Configuration
     @EnableAutoConfiguration
     @RestController
     protected static class Application {
 
+        @Autowired
+        private SseTopicRegistry registry;
+
         @RequestMapping(method = RequestMethod.GET, value = "/sse")
         public ObservableSseEmitter<String> single() {
             return new ObservableSseEmitter<String>(Observable.just("single value"));
@@ -73,6 +88,61 @@ public class ObservableSseEmitterTest {
             return new ObservableSseEmitter<String>(Observable.just("message 1", "message 2", "message 3"));
         }
 
+        @RequestMapping(method = RequestMethod.GET, value = "/batched")
+        public ObservableSseEmitter<String> batched() {
+            return new ObservableSseEmitter<String>(null, Observable.just("message 1", "message 2", "message 3"),
+                    new SseEmitterOptions().batch(2, 100, TimeUnit.MILLISECONDS));
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/non-blocking")
+        public ObservableSseEmitter<String> nonBlocking() {
+            return new ObservableSseEmitter<String>(null, Observable.just("message 1", "message 2", "message 3"),
+                    new SseEmitterOptions().nonBlocking(16, OverflowPolicy.DISCONNECT));
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/drop-newest")
+        public ObservableSseEmitter<String> dropNewest() {
+            return new ObservableSseEmitter<String>(null, Observable.just("message 1", "message 2", "message 3"),
+                    new SseEmitterOptions().nonBlocking(2, OverflowPolicy.DROP_NEWEST));
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/drop-oldest")
+        public ObservableSseEmitter<String> dropOldest() {
+            return new ObservableSseEmitter<String>(null, Observable.just("message 1", "message 2", "message 3"),
+                    new SseEmitterOptions().nonBlocking(2, OverflowPolicy.DROP_OLDEST));
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/heartbeat")
+        public ObservableSseEmitter<String> heartbeat() {
+            return new ObservableSseEmitter<String>(null, Observable.just("message 1").delay(500, TimeUnit.MILLISECONDS),
+                    new SseEmitterOptions().nonBlocking(16, OverflowPolicy.DISCONNECT).heartbeat(100, TimeUnit.MILLISECONDS));
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/conflated")
+        public ObservableSseEmitter<String> conflated() {
+            return new ObservableSseEmitter<String>(null, Observable.just("a:1", "b:1", "a:2"),
+                    new SseEmitterOptions().conflate(new Function<String, String>() {
+                        @Override
+                        public String apply(String value) {
+                            return value.substring(0, value.indexOf(':'));
+                        }
+                    }));
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/named")
+        public ObservableSseEmitter<SseEvent<String>> named() {
+            return new ObservableSseEmitter<SseEvent<String>>(Observable.just(
+                    new SseEvent<String>("1", "message", "message 1"),
+                    new SseEvent<String>("2", "message", "message 2")
+            ));
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/topic")
+        public ObservableSseEmitter<SseEvent<String>> topic() {
+            return new ObservableSseEmitter<SseEvent<String>>(200L, null, registry.<SseEvent<String>>topic("messages"),
+                    new SseEmitterOptions().nonBlocking(16, OverflowPolicy.DISCONNECT));
+        }
+
         @RequestMapping(method = RequestMethod.GET, value = "/events")
         public ObservableSseEmitter<EventDto> event() {
             return new ObservableSseEmitter<EventDto>(APPLICATION_JSON_UTF8, Observable.just(
@@ -106,6 +176,114 @@ public class ObservableSseEmitterTest {
         assertEquals("data:message 1\n\ndata:message 2\n\ndata:message 3\n\n", response.getBody());
     }
 
+    @Test
+    public void shouldRetrieveSseWithBatchedMessages() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/batched"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("data:message 1\n\ndata:message 2\n\ndata:message 3\n\n", response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveNonBlockingSse() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/non-blocking"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("data:message 1\n\ndata:message 2\n\ndata:message 3\n\n", response.getBody());
+    }
+
+    @Test
+    public void shouldDropNewestMessagesOnOverflow() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/drop-newest"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("data:message 1\n\ndata:message 2\n\n", response.getBody());
+    }
+
+    @Test
+    public void shouldDropOldestMessagesOnOverflow() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/drop-oldest"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("data:message 2\n\ndata:message 3\n\n", response.getBody());
+    }
+
+    @Test
+    public void shouldWriteHeartbeatsWhileIdle() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/heartbeat"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().startsWith(":\n\n"));
+        assertTrue(response.getBody().endsWith("data:message 1\n\n"));
+    }
+
+    @Test
+    public void shouldConflatePendingMessagesByKey() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/conflated"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("data:a:2\n\ndata:b:1\n\n", response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveSseWithNamedEvents() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/named"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("id:1\nevent:message\ndata:message 1\n\nid:2\nevent:message\ndata:message 2\n\n",
+                response.getBody());
+    }
+
+    @Test
+    public void shouldResumeTopicAfterLastEventId() {
+
+        // given
+        final PublishSubject<SseEvent<String>> source = PublishSubject.create();
+        final TestObserver<SseEvent<String>> observer = registry.register("messages", source, 16).test();
+        source.onNext(new SseEvent<String>("1", "message", "message 1"));
+        source.onNext(new SseEvent<String>("2", "message", "message 2"));
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set("Last-Event-ID", "1");
+
+        // when
+        ResponseEntity<String> response = restTemplate.exchange(path("/topic"), HttpMethod.GET,
+                new HttpEntity<Void>(headers), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("id:2\nevent:message\ndata:message 2\n\n", response.getBody());
+        observer.dispose();
+    }
+
     @Test
     public void shouldRetrieveJsonOverSseWithMultipleMessages() {
 
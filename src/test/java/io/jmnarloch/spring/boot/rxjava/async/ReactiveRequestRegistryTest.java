@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Single;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ReactiveRequestRegistry} class.
+ *
+ * @author Jakub Narloch
+ */
+public class ReactiveRequestRegistryTest {
+
+    private final ReactiveRequestRegistry registry = new ReactiveRequestRegistry();
+
+    @After
+    public void tearDown() {
+        RequestLifecycle.unbind();
+    }
+
+    @Test
+    public void shouldTrackPendingRequests() {
+
+        // given
+        RequestLifecycle.bind(null, registry, "Controller.pending");
+
+        // when
+        new SingleDeferredResult<String>(Single.<String>never());
+
+        // then
+        assertEquals(1, registry.getCount());
+        assertEquals(Collections.singletonMap("Controller.pending", 1), registry.getCountByHandler());
+        final ActiveRequest request = registry.getActiveRequests().get(0);
+        assertEquals("Controller.pending", request.getHandler());
+        assertEquals("DeferredResultObserver", request.getType());
+        assertEquals(0, request.getItems());
+    }
+
+    @Test
+    public void shouldNotTrackCompletedRequests() {
+
+        // given
+        RequestLifecycle.bind(null, registry, "Controller.completed");
+
+        // when
+        new SingleDeferredResult<String>(Single.just("value"));
+
+        // then
+        assertEquals(0, registry.getCount());
+    }
+
+    @Test
+    public void shouldDisposeRequestsOfHandler() {
+
+        // given
+        RequestLifecycle.bind(null, registry, "Controller.pending");
+        final SingleDeferredResult<String> first = new SingleDeferredResult<String>(Single.<String>never());
+        final SingleDeferredResult<String> second = new SingleDeferredResult<String>(Single.<String>never());
+
+        // when
+        final int disposed = registry.dispose("Controller.pending");
+
+        // then
+        assertEquals(2, disposed);
+        assertEquals(0, registry.getCount());
+        assertTrue(first.getResult() instanceof CancellationException);
+        assertTrue(second.getResult() instanceof CancellationException);
+    }
+
+    @Test
+    public void shouldCompleteStreamsOnDrain() throws Exception {
+
+        // given
+        RequestLifecycle.bind(null, registry, "Controller.stream");
+        final PublishSubject<String> source = PublishSubject.create();
+        new ObservableSseEmitter<String>(source);
+
+        // when
+        final int terminated = registry.drain(1000);
+
+        // then
+        assertEquals(0, terminated);
+        assertEquals(0, registry.getCount());
+        assertFalse(source.hasObservers());
+        assertTrue(registry.isDraining());
+    }
+
+    @Test
+    public void shouldTerminatePendingRequestsAfterDrainTimeout() throws Exception {
+
+        // given
+        RequestLifecycle.bind(null, registry, "Controller.pending");
+        final SingleDeferredResult<String> result = new SingleDeferredResult<String>(Single.<String>never());
+
+        // when
+        final int terminated = registry.drain(50);
+
+        // then
+        assertEquals(1, terminated);
+        assertEquals(0, registry.getCount());
+        assertTrue(result.getResult() instanceof RequestDrainedException);
+    }
+}
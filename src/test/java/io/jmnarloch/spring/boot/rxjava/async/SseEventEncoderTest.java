@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jmnarloch.spring.boot.rxjava.dto.EventDto;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link SseEventEncoder} class.
+ *
+ * @author Jakub Narloch
+ */
+public class SseEventEncoderTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SseEventEncoder encoder = new SseEventEncoder(objectMapper);
+
+    @Test
+    public void shouldEncodeText() throws Exception {
+
+        // when
+        final byte[] frame = encoder.encode((Object) "first\nsecond");
+
+        // then
+        assertEquals("data:first\ndata:second\n\n", new String(frame, UTF_8));
+    }
+
+    @Test
+    public void shouldEncodeJson() throws Exception {
+
+        // given
+        final EventDto event = new EventDto("Spring.io", new Date(0));
+
+        // when
+        final byte[] frame = encoder.encode((Object) event);
+
+        // then
+        assertEquals("data:" + objectMapper.writeValueAsString(event) + "\n\n", new String(frame, UTF_8));
+    }
+
+    @Test
+    public void shouldEncodeEventOnce() throws Exception {
+
+        // given
+        final SseEvent<String> event = new SseEvent<String>("1", "message", "value");
+
+        // when
+        final byte[] first = encoder.encode((Object) event);
+        final byte[] second = new SseEventEncoder(objectMapper).encode((Object) event);
+
+        // then
+        assertEquals("id:1\nevent:message\ndata:value\n\n", new String(first, UTF_8));
+        assertSame(first, second);
+    }
+
+    @Test
+    public void shouldEncodeEventBuilder() throws Exception {
+
+        // when
+        final byte[] frame = encoder.encode((Object) SseEmitter.event().name("message").data("value"));
+
+        // then
+        assertEquals("event:message\ndata:value\n\n", new String(frame, UTF_8));
+    }
+
+    @Test
+    public void shouldEncodeBatch() throws Exception {
+
+        // when
+        final byte[] frame = encoder.encode(Arrays.asList("first", new SseEvent<String>("2", null, "second")));
+
+        // then
+        assertEquals("data:first\n\nid:2\ndata:second\n\n", new String(frame, UTF_8));
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.async;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SseTopicRegistry} class.
+ *
+ * @author Jakub Narloch
+ */
+public class SseTopicRegistryTest {
+
+    private final SseTopicRegistry registry = new SseTopicRegistry();
+
+    @Test
+    public void shouldShareSingleUpstreamSubscription() {
+
+        // given
+        final PublishSubject<String> source = PublishSubject.create();
+        final SseTopic<String> topic = registry.register("messages", source);
+        final TestObserver<String> first = topic.test();
+        final TestObserver<String> second = topic.test();
+
+        // when
+        source.onNext("message");
+
+        // then
+        assertTrue(source.hasObservers());
+        assertEquals(2, topic.getSubscriberCount());
+        first.assertValue("message");
+        second.assertValue("message");
+    }
+
+    @Test
+    public void shouldDisposeUpstreamWithLastSubscriber() {
+
+        // given
+        final PublishSubject<String> source = PublishSubject.create();
+        final SseTopic<String> topic = registry.register("messages", source);
+        final TestObserver<String> first = topic.test();
+        final TestObserver<String> second = topic.test();
+
+        // when
+        first.dispose();
+
+        // then
+        assertTrue(source.hasObservers());
+
+        // when
+        second.dispose();
+
+        // then
+        assertFalse(source.hasObservers());
+        assertEquals(0, topic.getSubscriberCount());
+    }
+
+    @Test
+    public void shouldCompleteAllSubscribers() {
+
+        // given
+        final SseTopic<String> topic = registry.register("messages", Observable.just("message"));
+
+        // when
+        final TestObserver<String> observer = topic.test();
+
+        // then
+        observer.assertValue("message");
+        observer.assertComplete();
+        assertEquals(0, topic.getSubscriberCount());
+    }
+
+    @Test
+    public void shouldReplayMissedEvents() {
+
+        // given
+        final PublishSubject<SseEvent<String>> source = PublishSubject.create();
+        final SseTopic<SseEvent<String>> topic = registry.register("messages", source, 2);
+        final TestObserver<SseEvent<String>> observer = topic.test();
+        final SseEvent<String> first = new SseEvent<String>("1", null, "first");
+        final SseEvent<String> second = new SseEvent<String>("2", null, "second");
+        final SseEvent<String> third = new SseEvent<String>("3", null, "third");
+        source.onNext(first);
+        source.onNext(second);
+        source.onNext(third);
+
+        // when
+        final TestObserver<SseEvent<String>> resumed = topic.resume("2").test();
+        final TestObserver<SseEvent<String>> expired = topic.resume("1").test();
+
+        // then
+        observer.assertValueSequence(Arrays.asList(first, second, third));
+        resumed.assertValue(third);
+        expired.assertValueSequence(Arrays.asList(second, third));
+    }
+
+    @Test
+    public void shouldKeepUpstreamSubscribedDuringGracePeriod() {
+
+        // given
+        final PublishSubject<SseEvent<String>> source = PublishSubject.create();
+        final SseTopic<SseEvent<String>> topic = registry.register("messages", source, 2, 1, TimeUnit.HOURS);
+        final SseEvent<String> first = new SseEvent<String>("1", null, "first");
+        final SseEvent<String> second = new SseEvent<String>("2", null, "second");
+        topic.test().dispose();
+
+        // when
+        source.onNext(first);
+        source.onNext(second);
+        final TestObserver<SseEvent<String>> resumed = topic.resume("1").test();
+
+        // then
+        assertTrue(source.hasObservers());
+        resumed.assertValue(second);
+    }
+
+    @Test
+    public void shouldDiscardReplayedEventsWhenUpstreamIsDisposed() {
+
+        // given
+        final PublishSubject<SseEvent<String>> source = PublishSubject.create();
+        final SseTopic<SseEvent<String>> topic = registry.register("messages", source, 2, 0, TimeUnit.SECONDS);
+        final TestObserver<SseEvent<String>> observer = topic.test();
+        source.onNext(new SseEvent<String>("1", null, "first"));
+        source.onNext(new SseEvent<String>("2", null, "second"));
+        observer.dispose();
+
+        // when
+        final TestObserver<SseEvent<String>> resumed = topic.resume("1").test();
+
+        // then
+        assertTrue(source.hasObservers());
+        resumed.assertNoValues();
+    }
+
+    @Test
+    public void shouldRetrieveRegisteredTopic() {
+
+        // given
+        final SseTopic<String> topic = registry.register("messages", Observable.<String>never());
+
+        // then
+        assertSame(topic, registry.topic("messages"));
+        assertSame(topic, registry.register("messages", Observable.<String>never()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailOnUnknownTopic() {
+
+        // when
+        registry.topic("unknown");
+    }
+}
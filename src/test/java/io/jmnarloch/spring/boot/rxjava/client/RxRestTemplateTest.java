@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.client;
+
+import io.jmnarloch.spring.boot.rxjava.dto.EventDto;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link RxRestTemplate} class.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = RxRestTemplateTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0", "rxjava.mvc.client.enabled=true"})
+@DirtiesContext
+public class RxRestTemplateTest {
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    @Autowired
+    private RxRestTemplate rxRestTemplate;
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @RequestMapping(method = RequestMethod.GET, value = "/events/{name:.+}")
+        public EventDto event(@PathVariable("name") String name) {
+            return new EventDto(name, new Date());
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/events")
+        public List<EventDto> events() {
+            return Arrays.asList(new EventDto("Spring.io", new Date()), new EventDto("JavaOne", new Date()));
+        }
+
+        @RequestMapping(method = RequestMethod.POST, value = "/events")
+        public String create(@RequestBody EventDto event) {
+            return event.getName();
+        }
+    }
+
+    @Test
+    public void shouldRetrieveObject() {
+
+        // when
+        EventDto event = rxRestTemplate.getForObject(path("/events/{name}"), EventDto.class, "Spring.io")
+                .blockingGet();
+
+        // then
+        assertEquals("Spring.io", event.getName());
+    }
+
+    @Test
+    public void shouldRetrieveObservable() {
+
+        // when
+        List<EventDto> events = rxRestTemplate.getForObservable(path("/events"), EventDto.class)
+                .toList()
+                .blockingGet();
+
+        // then
+        assertEquals(2, events.size());
+        assertEquals("JavaOne", events.get(1).getName());
+    }
+
+    @Test
+    public void shouldPostObject() {
+
+        // when
+        String name = rxRestTemplate.postForObject(path("/events"), new EventDto("JavaOne", new Date()), String.class)
+                .blockingGet();
+
+        // then
+        assertEquals("JavaOne", name);
+    }
+
+    @Test
+    public void shouldFanOutRequests() {
+
+        // given
+        final List<String> names = new ArrayList<String>();
+        for (int index = 0; index < 10; index++) {
+            names.add("event-" + index);
+        }
+
+        // when
+        List<String> result = Observable.fromIterable(names)
+                .flatMap(new Function<String, Observable<String>>() {
+                    @Override
+                    public Observable<String> apply(String name) {
+                        return rxRestTemplate.getForObject(path("/events/{name}"), EventDto.class, name)
+                                .map(new Function<EventDto, String>() {
+                                    @Override
+                                    public String apply(EventDto event) {
+                                        return event.getName();
+                                    }
+                                })
+                                .toObservable();
+                    }
+                })
+                .toSortedList()
+                .blockingGet();
+
+        // then
+        assertEquals(names, result);
+    }
+
+    @Test
+    public void shouldSignalClientError() {
+
+        // when
+        Throwable error = rxRestTemplate.getForObject(path("/missing"), EventDto.class)
+                .map(new Function<EventDto, Throwable>() {
+                    @Override
+                    public Throwable apply(EventDto event) {
+                        return new AssertionError("Unexpected response");
+                    }
+                })
+                .onErrorReturn(new Function<Throwable, Throwable>() {
+                    @Override
+                    public Throwable apply(Throwable error) {
+                        return error;
+                    }
+                })
+                .blockingGet();
+
+        // then
+        assertTrue(error instanceof HttpClientErrorException);
+        assertEquals(HttpStatus.NOT_FOUND, ((HttpClientErrorException) error).getStatusCode());
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}
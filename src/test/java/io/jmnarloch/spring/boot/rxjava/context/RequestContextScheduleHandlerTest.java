@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.context;
+
+import io.reactivex.Single;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Tests the {@link RequestContextScheduleHandler} class.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = RequestContextScheduleHandlerTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0", "rxjava.mvc.scheduler.type=IO", "rxjava.mvc.context-propagation.enabled=true"})
+@DirtiesContext
+public class RequestContextScheduleHandlerTest {
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    private TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @RequestMapping(method = RequestMethod.GET, value = "/context")
+        public Single<String> context() {
+            return Single.fromCallable(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    final ServletRequestAttributes attributes =
+                            (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+                    return attributes.getRequest().getRequestURI();
+                }
+            });
+        }
+    }
+
+    @Test
+    public void shouldPropagateRequestContext() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/context"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("/context", response.getBody());
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}
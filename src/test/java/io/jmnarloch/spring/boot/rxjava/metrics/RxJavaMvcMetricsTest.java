@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.metrics;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link RxJavaMvcMetrics} class.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = RxJavaMvcMetricsTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0", "spring.mvc.async.request-timeout=100"})
+@DirtiesContext
+public class RxJavaMvcMetricsTest {
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    private static final String HANDLER = Application.class.getName() + ".";
+
+    @Autowired
+    private RxJavaMvcMetrics metrics;
+
+    private TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @RequestMapping(method = RequestMethod.GET, value = "/single")
+        public Single<String> single() {
+            return Single.just("single value");
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/multiple")
+        public Observable<String> multiple() {
+            return Observable.just("multiple", "values");
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/throw")
+        public Single<Object> error() {
+            return Single.error(new RuntimeException("Unexpected"));
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/timeout")
+        public Single<String> timeout() {
+            return Single.never();
+        }
+    }
+
+    @Test
+    public void shouldRecordMetrics() {
+
+        // when
+        restTemplate.getForEntity(path("/single"), String.class);
+        restTemplate.getForEntity(path("/multiple"), List.class);
+        restTemplate.getForEntity(path("/throw"), Object.class);
+
+        // then
+        final Map<String, Number> values = new HashMap<String, Number>();
+        for (Metric<?> metric : metrics.metrics()) {
+            values.put(metric.getName(), metric.getValue());
+        }
+        assertEquals(1L, values.get("counter.rxjava.mvc." + HANDLER + "single().requests"));
+        assertEquals(1L, values.get("counter.rxjava.mvc." + HANDLER + "single().completions"));
+        assertEquals(1L, values.get("counter.rxjava.mvc." + HANDLER + "error().errors"));
+        assertEquals(0L, values.get("counter.rxjava.mvc." + HANDLER + "error().items"));
+        assertTrue(values.containsKey("gauge.rxjava.mvc." + HANDLER + "single().first-item.mean"));
+        assertTrue(values.containsKey("gauge.rxjava.mvc." + HANDLER + "single().completion.mean"));
+    }
+
+    @Test
+    public void shouldRecordTimeoutOnly() {
+
+        // when
+        restTemplate.getForEntity(path("/timeout"), Object.class);
+
+        // then
+        final Map<String, Number> values = new HashMap<String, Number>();
+        for (Metric<?> metric : metrics.metrics()) {
+            values.put(metric.getName(), metric.getValue());
+        }
+        assertEquals(1L, values.get("counter.rxjava.mvc." + HANDLER + "timeout().requests"));
+        assertEquals(1L, values.get("counter.rxjava.mvc." + HANDLER + "timeout().timeouts"));
+        assertEquals(0L, values.get("counter.rxjava.mvc." + HANDLER + "timeout().disposals"));
+        assertEquals(0L, values.get("counter.rxjava.mvc." + HANDLER + "timeout().items"));
+        assertTrue(values.containsKey("gauge.rxjava.mvc." + HANDLER + "timeout().completion.mean"));
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import org.junit.Test;
+
+/**
+ * Tests the {@link EndpointPolicy} class.
+ *
+ * @author Jakub Narloch
+ */
+public class EndpointPolicyTest {
+
+    @Test
+    public void shouldCountItemsPerSubscription() {
+
+        // given
+        final EndpointPolicy policy = new EndpointPolicy(null, null, 3, -1, null, null, null);
+        final Observable<Integer> observable = policy.apply(Observable.range(1, 3));
+
+        // when
+        observable.test().assertValues(1, 2, 3);
+
+        // then
+        observable.test().assertValues(1, 2, 3).assertComplete();
+    }
+
+    @Test
+    public void shouldCountBytesPerSubscription() {
+
+        // given
+        final EndpointPolicy policy = new EndpointPolicy(null, null, -1, 20, new ObjectMapper(), null, null);
+        final Observable<Object> observable = policy.serialize(Observable.<Object>just("first", "second"));
+
+        // when
+        observable.test().assertValueCount(2);
+
+        // then
+        observable.test().assertValueCount(2).assertComplete();
+    }
+
+    @Test
+    public void shouldFailWhenByteLimitExceeded() {
+
+        // given
+        final EndpointPolicy policy = new EndpointPolicy(null, null, -1, 10, new ObjectMapper(), null, null);
+
+        // when
+        final TestObserver<Object> observer = policy.serialize(Observable.<Object>just("first", "second")).test();
+
+        // then
+        observer.assertValueCount(1);
+        observer.assertError(ResponseLimitExceededException.class);
+    }
+}
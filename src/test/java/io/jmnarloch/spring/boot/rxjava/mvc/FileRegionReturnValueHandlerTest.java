@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.jmnarloch.spring.boot.rxjava.async.FileRegion;
+import io.reactivex.Single;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link FileRegionReturnValueHandler} class.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = FileRegionReturnValueHandlerTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0"})
+@DirtiesContext
+public class FileRegionReturnValueHandlerTest {
+
+    private static final int SIZE = 3 * 1024 * 1024;
+
+    private static File file;
+
+    private static byte[] content;
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    private TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @RequestMapping(method = RequestMethod.GET, value = "/file")
+        public Single<FileRegion> file() {
+            return Single.just(new FileRegion(file, MediaType.TEXT_PLAIN));
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/missing")
+        public Single<FileRegion> missing() {
+            return Single.just(new FileRegion(new File(file.getParentFile(), "missing-" + file.getName())));
+        }
+    }
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        content = new byte[SIZE];
+        for (int index = 0; index < content.length; index++) {
+            content[index] = (byte) ('a' + index % 26);
+        }
+        file = File.createTempFile("region", ".txt");
+        FileCopyUtils.copy(content, file);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void shouldRetrieveFile() {
+
+        // when
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(path("/file"), byte[].class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.TEXT_PLAIN.isCompatibleWith(response.getHeaders().getContentType()));
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(SIZE, response.getHeaders().getContentLength());
+        assertArrayEquals(content, response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveRange() {
+
+        // when
+        ResponseEntity<byte[]> response = get("/file", "bytes=1048570-1048585");
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 1048570-1048585/" + SIZE, response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 1048570, 1048586), response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveSuffixRange() {
+
+        // when
+        ResponseEntity<byte[]> response = get("/file", "bytes=-10");
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertArrayEquals(Arrays.copyOfRange(content, SIZE - 10, SIZE), response.getBody());
+    }
+
+    @Test
+    public void shouldRejectUnsatisfiableRange() {
+
+        // when
+        ResponseEntity<byte[]> response = get("/file", "bytes=" + SIZE + "-");
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */" + SIZE, response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void shouldRetrieveErrorResponse() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/missing"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    private ResponseEntity<byte[]> get(String context, String range) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RANGE, range);
+        return restTemplate.exchange(path(context), HttpMethod.GET, new HttpEntity<Void>(headers), byte[].class);
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link FlowableReturnValueHandler} class.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = FlowableReturnValueHandlerTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0"})
+@DirtiesContext
+public class FlowableReturnValueHandlerTest {
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    private TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @RequestMapping(method = RequestMethod.GET, value = "/empty")
+        public Flowable<Void> empty() {
+            return Flowable.empty();
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/multiple")
+        public Flowable<String> multiple() {
+            return Flowable.just("multiple", "values");
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/range")
+        public Flowable<Integer> range() {
+            return Flowable.range(0, 100000);
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/bytes")
+        public Flowable<ByteBuffer> bytes() {
+            return Flowable.range(0, 1000)
+                    .map(new Function<Integer, ByteBuffer>() {
+                        @Override
+                        public ByteBuffer apply(Integer value) {
+                            return ByteBuffer.wrap(new byte[]{(byte) value.intValue()});
+                        }
+                    });
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/throw")
+        public Flowable<Object> error() {
+            return Flowable.error(new RuntimeException("Unexpected"));
+        }
+    }
+
+    @Test
+    public void shouldRetrieveEmptyResponse() {
+
+        // when
+        ResponseEntity<List<String>> response = restTemplate.exchange(path("/empty"), HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<String>>() {
+                });
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Collections.emptyList(), response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveMultipleValues() {
+
+        // when
+        ResponseEntity<List<String>> response = restTemplate.exchange(path("/multiple"), HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<String>>() {
+                });
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Arrays.asList("multiple", "values"), response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveLargeResponse() {
+
+        // when
+        ResponseEntity<List<Integer>> response = restTemplate.exchange(path("/range"), HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<Integer>>() {
+                });
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(100000, response.getBody().size());
+        assertEquals(Integer.valueOf(99999), response.getBody().get(99999));
+    }
+
+    @Test
+    public void shouldRetrieveBinaryResponse() {
+
+        // when
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(path("/bytes"), byte[].class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_OCTET_STREAM.isCompatibleWith(response.getHeaders().getContentType()));
+        assertEquals(1000, response.getBody().length);
+        assertEquals((byte) 999, response.getBody()[999]);
+    }
+
+    @Test
+    public void shouldRetrieveErrorResponse() {
+
+        // when
+        ResponseEntity<Object> response = restTemplate.getForEntity(path("/throw"), Object.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.jmnarloch.spring.boot.rxjava.async.NdjsonResponseObserver;
+import io.jmnarloch.spring.boot.rxjava.dto.EventDto;
+import io.reactivex.Observable;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ObservableReturnValueHandler} class configured with {@link StreamingMode#NDJSON}.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = NdjsonReturnValueHandlerTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0", "rxjava.mvc.observable.streaming-mode=NDJSON", "rxjava.mvc.observable.flush-items=2"})
+@DirtiesContext
+public class NdjsonReturnValueHandlerTest {
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    private TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @RequestMapping(method = RequestMethod.GET, value = "/empty")
+        public Observable<Void> empty() {
+            return Observable.empty();
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/multiple")
+        public Observable<String> multiple() {
+            return Observable.just("first", "second", "third");
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/events")
+        public Observable<EventDto> events() {
+            return Observable.just(
+                    new EventDto("Spring.io", new Date(0)),
+                    new EventDto("JavaOne", new Date(0))
+            );
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/throw")
+        public Observable<Object> error() {
+            return Observable.error(new RuntimeException("Unexpected"));
+        }
+    }
+
+    @Test
+    public void shouldRetrieveEmptyResponse() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/empty"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveValuePerLine() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/multiple"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(NdjsonResponseObserver.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+        assertEquals("\"first\"\n\"second\"\n\"third\"\n", response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveJsonDocumentPerLine() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/events"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        final String[] lines = response.getBody().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("Spring.io"));
+        assertTrue(lines[1].startsWith("{") && lines[1].contains("JavaOne"));
+    }
+
+    @Test
+    public void shouldRetrieveErrorResponse() {
+
+        // when
+        ResponseEntity<Object> response = restTemplate.getForEntity(path("/throw"), Object.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.jmnarloch.spring.boot.rxjava.dto.EventDto;
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ObservableReturnValueHandler} class configured with {@link StreamingMode#JSON_ARRAY}.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = ObservableStreamingReturnValueHandlerTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0", "rxjava.mvc.observable.streaming-mode=JSON_ARRAY"})
+@DirtiesContext
+public class ObservableStreamingReturnValueHandlerTest {
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    private TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @RequestMapping(method = RequestMethod.GET, value = "/empty")
+        public Observable<Void> empty() {
+            return Observable.empty();
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/emptyAsync")
+        public Observable<Void> emptyAsync() {
+            return Observable.<Void>empty().subscribeOn(Schedulers.io());
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/multiple")
+        public Observable<String> multiple() {
+            return Observable.just("multiple", "values");
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/events")
+        public Observable<EventDto> events() {
+            return Observable.just(
+                    new EventDto("Spring.io", new Date()),
+                    new EventDto("JavaOne", new Date())
+            );
+        }
+
+        @RequestMapping(method = RequestMethod.GET, value = "/throw")
+        public Observable<Object> error() {
+            return Observable.error(new RuntimeException("Unexpected"));
+        }
+    }
+
+    @Test
+    public void shouldRetrieveEmptyResponse() {
+
+        // when
+        ResponseEntity<List<String>> response = restTemplate.exchange(path("/empty"), HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<String>>() {
+                });
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Collections.emptyList(), response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveEmptyResponseOfAsyncObservable() {
+
+        // when
+        ResponseEntity<List<String>> response = restTemplate.exchange(path("/emptyAsync"), HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<String>>() {
+                });
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Collections.emptyList(), response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveMultipleValues() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/multiple"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(response.getHeaders().getContentType()));
+        assertEquals("[\"multiple\",\"values\"]", response.getBody());
+    }
+
+    @Test
+    public void shouldRetrieveJsonValues() {
+
+        // when
+        ResponseEntity<List<EventDto>> response = restTemplate.exchange(path("/events"),
+                HttpMethod.GET, null, new ParameterizedTypeReference<List<EventDto>>() {
+                });
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Arrays.asList("Spring.io", "JavaOne"),
+                Arrays.asList(response.getBody().get(0).getName(), response.getBody().get(1).getName()));
+    }
+
+    @Test
+    public void shouldRetrieveErrorResponse() {
+
+        // when
+        ResponseEntity<Object> response = restTemplate.getForEntity(path("/throw"), Object.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}
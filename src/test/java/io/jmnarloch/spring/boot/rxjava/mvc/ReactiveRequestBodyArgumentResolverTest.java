@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.jmnarloch.spring.boot.rxjava.dto.EventDto;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.functions.Function;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Tests the {@link ReactiveRequestBodyArgumentResolver} class.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = ReactiveRequestBodyArgumentResolverTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0"})
+@DirtiesContext
+public class ReactiveRequestBodyArgumentResolverTest {
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    private TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @RequestMapping(method = RequestMethod.POST, value = "/names")
+        public Single<String> names(@RequestBody Flowable<EventDto> events) {
+            return events
+                    .map(new Function<EventDto, String>() {
+                        @Override
+                        public String apply(EventDto event) {
+                            return event.getName();
+                        }
+                    })
+                    .reduce("", new BiFunction<String, String, String>() {
+                        @Override
+                        public String apply(String names, String name) {
+                            return names + name + ";";
+                        }
+                    });
+        }
+
+        @RequestMapping(method = RequestMethod.POST, value = "/count")
+        public Single<Long> count(@RequestBody Observable<String> values) {
+            return values.count();
+        }
+    }
+
+    @Test
+    public void shouldParseJsonArray() {
+
+        // given
+        final String body = "[{\"name\":\"Spring.io\",\"date\":0},{\"name\":\"JavaOne\",\"date\":0}]";
+
+        // when
+        ResponseEntity<String> response = restTemplate.postForEntity(path("/names"), json(body), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Spring.io;JavaOne;", response.getBody());
+    }
+
+    @Test
+    public void shouldParseNewlineDelimitedJson() {
+
+        // given
+        final String body = "\"first\"\n\"second\"\n\"third\"\n";
+
+        // when
+        ResponseEntity<Long> response = restTemplate.postForEntity(path("/count"), json(body), Long.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Long.valueOf(3), response.getBody());
+    }
+
+    @Test
+    public void shouldParseEmptyArray() {
+
+        // when
+        ResponseEntity<Long> response = restTemplate.postForEntity(path("/count"), json("[]"), Long.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Long.valueOf(0), response.getBody());
+    }
+
+    @Test
+    public void shouldRejectMalformedBody() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.postForEntity(path("/count"), json("[\"first\","), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private static HttpEntity<String> json(String body) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<String>(body, headers);
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}
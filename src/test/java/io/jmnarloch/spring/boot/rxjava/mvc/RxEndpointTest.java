@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link RxEndpoint} annotation.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = RxEndpointTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0"})
+@DirtiesContext
+public class RxEndpointTest {
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    private TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @Bean(destroyMethod = "")
+        public Scheduler newThreadScheduler() {
+            return Schedulers.newThread();
+        }
+
+        @RxEndpoint(maxItems = 3)
+        @RequestMapping(method = RequestMethod.GET, value = "/limited")
+        public Observable<Integer> limited() {
+            return Observable.range(1, 3);
+        }
+
+        @RxEndpoint(maxItems = 3)
+        @RequestMapping(method = RequestMethod.GET, value = "/exceeded")
+        public Observable<Integer> exceeded() {
+            return Observable.range(1, 100);
+        }
+
+        @RxEndpoint(maxBytes = 64)
+        @RequestMapping(method = RequestMethod.GET, value = "/oversized")
+        public Observable<String> oversized() {
+            return Observable.range(1, 100).map(new Function<Integer, String>() {
+                @Override
+                public String apply(Integer value) {
+                    return "value " + value;
+                }
+            });
+        }
+
+        @RxEndpoint(maxBytes = 64)
+        @RequestMapping(method = RequestMethod.GET, value = "/sized")
+        public Observable<String> sized() {
+            return Observable.just("first", "second");
+        }
+
+        @RxEndpoint(maxBytes = 16)
+        @RequestMapping(method = RequestMethod.GET, value = "/multibyte")
+        public Observable<String> multibyte() {
+            return Observable.just("\u017c\u00f3\u0142\u0107\u017c\u00f3\u0142\u0107");
+        }
+
+        @RxEndpoint(timeout = 100)
+        @RequestMapping(method = RequestMethod.GET, value = "/timeout")
+        public Single<String> timeout() {
+            return Single.never();
+        }
+
+        @RxEndpoint(scheduler = "newThreadScheduler")
+        @RequestMapping(method = RequestMethod.GET, value = "/scheduler")
+        public Single<String> scheduler() {
+            return Single.fromCallable(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return Thread.currentThread().getName();
+                }
+            });
+        }
+    }
+
+    @Test
+    public void shouldRetrieveItemsWithinLimit() {
+
+        // when
+        ResponseEntity<List<Integer>> response = restTemplate.exchange(path("/limited"), HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<Integer>>() {
+                });
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().size());
+    }
+
+    @Test
+    public void shouldFailWhenItemLimitExceeded() {
+
+        // when
+        ResponseEntity<Object> response = restTemplate.getForEntity(path("/exceeded"), Object.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+    }
+
+    @Test
+    public void shouldFailWhenByteLimitExceeded() {
+
+        // when
+        ResponseEntity<Object> response = restTemplate.getForEntity(path("/oversized"), Object.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+    }
+
+    @Test
+    public void shouldRetrieveItemsWithinByteLimit() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/sized"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("[\"first\",\"second\"]", response.getBody());
+    }
+
+    @Test
+    public void shouldCountUtf8EncodedBytes() {
+
+        // when
+        ResponseEntity<Object> response = restTemplate.getForEntity(path("/multibyte"), Object.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+    }
+
+    @Test
+    public void shouldTimeoutAfterEndpointTimeout() {
+
+        // when
+        ResponseEntity<Object> response = restTemplate.getForEntity(path("/timeout"), Object.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    @Test
+    public void shouldSubscribeOnEndpointScheduler() {
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity(path("/scheduler"), String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().startsWith("RxNewThreadScheduler"));
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}
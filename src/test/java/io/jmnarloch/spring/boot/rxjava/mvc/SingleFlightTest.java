@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link SingleFlight} annotation.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SingleFlightTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0"})
+@DirtiesContext
+public class SingleFlightTest {
+
+    private static final int REQUESTS = 8;
+
+    private static final AtomicInteger subscriptions = new AtomicInteger();
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    private TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @SingleFlight
+        @RequestMapping(method = RequestMethod.GET, value = "/single")
+        public Single<String> single(@RequestParam("key") final String key) {
+            return Single.timer(1, TimeUnit.SECONDS)
+                    .map(new Function<Long, String>() {
+                        @Override
+                        public String apply(Long tick) {
+                            return key + "-" + subscriptions.incrementAndGet();
+                        }
+                    });
+        }
+
+        @SingleFlight
+        @RequestMapping(method = RequestMethod.GET, value = "/observable")
+        public Observable<String> observable() {
+            return Observable.timer(1, TimeUnit.SECONDS)
+                    .map(new Function<Long, String>() {
+                        @Override
+                        public String apply(Long tick) {
+                            return "value-" + subscriptions.incrementAndGet();
+                        }
+                    });
+        }
+
+        @SingleFlight
+        @RxEndpoint(timeout = 200)
+        @RequestMapping(method = RequestMethod.GET, value = "/hung")
+        public Single<String> hung() {
+            return Single.<String>never()
+                    .doOnSubscribe(new Consumer<Disposable>() {
+                        @Override
+                        public void accept(Disposable disposable) {
+                            subscriptions.incrementAndGet();
+                        }
+                    });
+        }
+    }
+
+    @Before
+    public void setUp() {
+        subscriptions.set(0);
+        // the pooled client limits the connections per route, which would serialize the concurrent requests
+        restTemplate.setRequestFactory(new SimpleClientHttpRequestFactory());
+    }
+
+    @Test
+    public void shouldCoalesceSingle() throws Exception {
+
+        // when
+        List<String> responses = getConcurrently("/single?key=popular");
+
+        // then
+        assertEquals(1, subscriptions.get());
+        for (String response : responses) {
+            assertEquals("popular-1", response);
+        }
+    }
+
+    @Test
+    public void shouldCoalesceObservable() throws Exception {
+
+        // when
+        List<String> responses = getConcurrently("/observable");
+
+        // then
+        assertEquals(1, subscriptions.get());
+        for (String response : responses) {
+            assertEquals("[\"value-1\"]", response);
+        }
+    }
+
+    @Test
+    public void shouldSubscribeAnewOnceCompleted() {
+
+        // when
+        ResponseEntity<String> first = restTemplate.getForEntity(path("/single?key=first"), String.class);
+        ResponseEntity<String> second = restTemplate.getForEntity(path("/single?key=first"), String.class);
+
+        // then
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals("first-1", first.getBody());
+        assertEquals("first-2", second.getBody());
+    }
+
+    @Test
+    public void shouldSubscribeAnewOnceTimedOut() {
+
+        // when
+        restTemplate.getForEntity(path("/hung"), String.class);
+        restTemplate.getForEntity(path("/hung"), String.class);
+
+        // then
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    public void shouldNotCoalesceDifferentArguments() throws Exception {
+
+        // given
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            Future<String> first = executor.submit(get("/single?key=first"));
+            Future<String> second = executor.submit(get("/single?key=second"));
+
+            // then
+            assertEquals("first", first.get().split("-")[0]);
+            assertEquals("second", second.get().split("-")[0]);
+            assertEquals(2, subscriptions.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldNotCoalesceAnonymousRequestsCarryingCredentials() throws Exception {
+
+        // given
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            Future<String> first = executor.submit(get("/single?key=secret", "Bearer first"));
+            Future<String> second = executor.submit(get("/single?key=secret", "Bearer second"));
+            first.get();
+            second.get();
+
+            // then
+            assertEquals(2, subscriptions.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<String> getConcurrently(String context) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            final List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int index = 0; index < REQUESTS; index++) {
+                futures.add(executor.submit(get(context)));
+            }
+            final List<String> responses = new ArrayList<String>();
+            for (Future<String> future : futures) {
+                responses.add(future.get());
+            }
+            return responses;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Callable<String> get(final String context) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                return restTemplate.getForObject(path(context), String.class);
+            }
+        };
+    }
+
+    private Callable<String> get(final String context, final String authorization) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                final HttpHeaders headers = new HttpHeaders();
+                headers.set(HttpHeaders.AUTHORIZATION, authorization);
+                return restTemplate.exchange(path(context), HttpMethod.GET, new HttpEntity<Void>(headers), String.class)
+                        .getBody();
+            }
+        };
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.boot.rxjava.mvc;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.functions.Function;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Tests the {@link StreamingRequestPartArgumentResolver} class.
+ *
+ * @author Jakub Narloch
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = StreamingRequestPartArgumentResolverTest.Application.class)
+@WebAppConfiguration
+@IntegrationTest({"server.port=0", "multipart.enabled=false", "rxjava.mvc.multipart.chunk-size=1024"})
+@DirtiesContext
+public class StreamingRequestPartArgumentResolverTest {
+
+    @Value("${local.server.port}")
+    private int port = 0;
+
+    private TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Configuration
+    @EnableAutoConfiguration
+    @RestController
+    protected static class Application {
+
+        @RequestMapping(method = RequestMethod.POST, value = "/upload")
+        public Single<String> upload(@RequestPart("file") Flowable<ByteBuffer> file) {
+            return file
+                    .reduce(new long[2], new BiFunction<long[], ByteBuffer, long[]>() {
+                        @Override
+                        public long[] apply(long[] stats, ByteBuffer chunk) {
+                            for (int index = chunk.position(); index < chunk.limit(); index++) {
+                                stats[0] += chunk.get(index) == 'x' ? 1 : 0;
+                            }
+                            stats[1]++;
+                            return stats;
+                        }
+                    })
+                    .map(new Function<long[], String>() {
+                        @Override
+                        public String apply(long[] stats) {
+                            return stats[0] + "/" + stats[1];
+                        }
+                    });
+        }
+    }
+
+    @Test
+    public void shouldStreamRequestPart() {
+
+        // given
+        final byte[] content = new byte[5000];
+        Arrays.fill(content, (byte) 'x');
+        final MultiValueMap<String, Object> body = new LinkedMultiValueMap<String, Object>();
+        body.add("title", "report");
+        body.add("file", file(content));
+
+        // when
+        ResponseEntity<String> response = restTemplate.postForEntity(path("/upload"), body, String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("5000/5", response.getBody());
+    }
+
+    @Test
+    public void shouldRejectMissingRequestPart() {
+
+        // given
+        final MultiValueMap<String, Object> body = new LinkedMultiValueMap<String, Object>();
+        body.add("attachment", file("report".getBytes()));
+
+        // when
+        ResponseEntity<String> response = restTemplate.postForEntity(path("/upload"), body, String.class);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private static ByteArrayResource file(byte[] content) {
+        return new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "report.txt";
+            }
+        };
+    }
+
+    private String path(String context) {
+        return String.format("http://localhost:%d%s", port, context);
+    }
+}